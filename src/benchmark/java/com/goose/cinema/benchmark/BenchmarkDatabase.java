@@ -0,0 +1,67 @@
+package com.goose.cinema.benchmark;
+
+import com.goose.cinema.GeniuseeTestApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Database for the benchmarks: an embedded Postgres by default, or the one given by
+ * -Dbenchmark.datasource.url passed to the forks with -jvmArgsAppend (initdb refuses to run
+ * as root, so CI containers need the latter).
+ * The schema comes from the regular Liquibase changelog and the tables are truncated before seeding,
+ * hence only databases with "bench" in their URL are accepted.
+ */
+class BenchmarkDatabase implements AutoCloseable {
+    private static final String URL_PROPERTY = "benchmark.datasource.url";
+
+    private final EmbeddedPostgres embedded;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private BenchmarkDatabase(EmbeddedPostgres embedded, String url, String username, String password) {
+        this.embedded = embedded;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    static BenchmarkDatabase start() throws IOException {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null) {
+            EmbeddedPostgres embedded = EmbeddedPostgres.start();
+            return new BenchmarkDatabase(embedded, embedded.getJdbcUrl("postgres", "postgres"), "postgres", "postgres");
+        }
+        if (!url.contains("bench")) {
+            throw new IllegalStateException("Refusing to truncate " + url + ", use a dedicated *bench* database");
+        }
+        return new BenchmarkDatabase(null, url,
+                System.getProperty("benchmark.datasource.username", "user"),
+                System.getProperty("benchmark.datasource.password", "123"));
+    }
+
+    ConfigurableApplicationContext startApplication(String... arguments) {
+        return startApplication(WebApplicationType.NONE, arguments);
+    }
+
+    ConfigurableApplicationContext startApplication(WebApplicationType type, String... arguments) {
+        // Passed as arguments: builder properties are only defaults and application.properties would win.
+        return new SpringApplicationBuilder(GeniuseeTestApplication.class)
+                .web(type)
+                .run(Stream.concat(Stream.of("--spring.datasource.url=" + url,
+                                "--spring.datasource.username=" + username,
+                                "--spring.datasource.password=" + password), Arrays.stream(arguments))
+                        .toArray(String[]::new));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (embedded != null) embedded.close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.goose.cinema.benchmark;
+
+import com.goose.cinema.journal.JournalWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustained order creation under concurrent clients posting to /api/orders, with the shipped
+ * configuration apart from the ingest mode, so the concurrency limit applies as in production.
+ * The writer has to keep up for the journal result to count, so each iteration waits for it to
+ * drain and reports how long that took, along with any request that was not accepted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class IngestBenchmark {
+    private static final int MOVIES = 1_000;
+
+    @Param({"direct", "journal"})
+    public String ingest;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private JournalWriter journalWriter;
+    private HttpClient client;
+    private URI orders;
+    private final AtomicLong refused = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        context = database.startApplication(WebApplicationType.SERVLET, "--server.port=0",
+                "--cinema.orders.ingest=" + ingest,
+                "--cinema.orders.journal.directory=" + Files.createTempDirectory("cinema-journal"));
+        journalWriter = context.getBeanProvider(JournalWriter.class).getIfAvailable();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        orders = URI.create("http://localhost:"
+                + ((ServletWebServerApplicationContext) context).getWebServer().getPort() + "/api/orders");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("TRUNCATE orders, movies CASCADE");
+        jdbcTemplate.update("INSERT INTO movies (id, name, release_date, cost) "
+                + "SELECT id, 'movie' || id, DATE '2022-09-16', 100 FROM generate_series(1, ?) id", MOVIES);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() throws InterruptedException {
+        long start = System.nanoTime();
+        while (journalWriter != null && journalWriter.backlog() > 0) Thread.sleep(1);
+        System.out.printf("%nwriter drained in %d ms, %d requests refused%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), refused.getAndSet(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int create() throws IOException, InterruptedException {
+        String order = "{\"movieId\":" + ThreadLocalRandom.current().nextLong(1, MOVIES + 1) + ",\"participants\":2}";
+        int status = client.send(HttpRequest.newBuilder(orders)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(order))
+                        .build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+        if (status >= 300) refused.incrementAndGet();
+        return status;
+    }
+}
@@ -0,0 +1,85 @@
+package com.goose.cinema.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.mapper.MapStructMapper;
+import com.goose.cinema.mapper.MapStructMapperImpl;
+import com.goose.cinema.persistance.Movie;
+import com.goose.cinema.persistance.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10", "1000", "10000"})
+    private int orders;
+
+    private final MapStructMapper mapper = new MapStructMapperImpl();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Movie movie;
+    private Page<MovieDtoAll> page;
+
+    @Setup
+    public void setUp() {
+        movie = createMovie(1L);
+
+        List<MovieDtoAll> movies = LongStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(id -> mapper.movieToMovieDtoAll(createMovie(id)))
+                .toList();
+        page = new PageImpl<>(movies, PageRequest.of(0, PAGE_SIZE), 10_000);
+    }
+
+    @Benchmark
+    public MovieDtoAll movieToMovieDtoAll() {
+        return mapper.movieToMovieDtoAll(movie);
+    }
+
+    @Benchmark
+    public byte[] serializeMoviePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    private Movie createMovie(long id) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setName("movie" + id);
+        movie.setReleaseDate(LocalDate.of(2022, 9, 16));
+        movie.setCost(100);
+        movie.setVersion(0L);
+
+        List<Order> movieOrders = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order();
+            order.setId(id * orders + i);
+            order.setMovieId(id);
+            order.setOrderTime(LocalDate.of(2022, 9, 16).plusDays(i % 365));
+            order.setParticipants(1 + i % 10);
+            order.setVersion(0L);
+            movieOrders.add(order);
+        }
+        movie.setOrders(movieOrders);
+        return movie;
+    }
+}
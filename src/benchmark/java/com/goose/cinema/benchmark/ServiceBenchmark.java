@@ -0,0 +1,130 @@
+package com.goose.cinema.benchmark;
+
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.persistance.Movie;
+import com.goose.cinema.persistance.Order;
+import com.goose.cinema.service.MovieService;
+import com.goose.cinema.service.OrderService;
+import com.goose.cinema.service.TransferService;
+import com.goose.cinema.specification.MovieSpecification;
+import com.goose.cinema.specification.OrderSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServiceBenchmark {
+    private static final int MOVIES = 10_000;
+    private static final int ORDERS_PER_MOVIE = 10;
+    private static final int PAGE_SIZE = 20;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private OrderService orderService;
+    private EntityManager entityManager;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start();
+        context = database.startApplication();
+        movieService = context.getBean(MovieService.class);
+        orderService = context.getBean(OrderService.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE orders, movies CASCADE");
+        seed(context.getBean(TransferService.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        entityManager.close();
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Predicate movieSpecification() {
+        MovieDto filter = new MovieDto();
+        filter.setName("movie12");
+        filter.setCost(100);
+
+        CriteriaQuery<Movie> query = criteriaBuilder.createQuery(Movie.class);
+        return MovieSpecification.movieSpecification(filter, NameMatch.PREFIX)
+                .toPredicate(query.from(Movie.class), query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate orderSpecification() {
+        OrderDto filter = new OrderDto();
+        filter.setMovieId(42L);
+        filter.setParticipants(3);
+
+        CriteriaQuery<Order> query = criteriaBuilder.createQuery(Order.class);
+        return OrderSpecification.orderSpecification(filter).and(OrderSpecification.afterId(100L))
+                .toPredicate(query.from(Order.class), query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Slice<MovieDtoAll> searchAll() {
+        int page = ThreadLocalRandom.current().nextInt(MOVIES / PAGE_SIZE);
+        return movieService.searchAll(null, NameMatch.SUBSTRING, PageRequest.of(page, PAGE_SIZE), false,
+                MovieInclude.ORDERS);
+    }
+
+    @Benchmark
+    public OrderDto createOrder() {
+        OrderDto order = new OrderDto();
+        order.setMovieId(ThreadLocalRandom.current().nextLong(1, MOVIES + 1));
+        order.setParticipants(2);
+        return orderService.create(order);
+    }
+
+    private static void seed(TransferService transferService) {
+        StringBuilder movies = new StringBuilder("id,name,release_date,cost\n");
+        StringBuilder orders = new StringBuilder("id,movie_id,order_time,participants\n");
+        LocalDate releaseDate = LocalDate.of(2022, 9, 16);
+
+        for (int id = 1; id <= MOVIES; id++) {
+            movies.append(id).append(",movie").append(id).append(',')
+                    .append(releaseDate.plusDays(id % 365)).append(',').append(100 + id % 50).append('\n');
+            for (int i = 0; i < ORDERS_PER_MOVIE; i++) {
+                orders.append((long) id * ORDERS_PER_MOVIE + i).append(',').append(id).append(',')
+                        .append(releaseDate.plusDays(i)).append(',').append(1 + i).append('\n');
+            }
+        }
+
+        transferService.importMovies(new ByteArrayInputStream(movies.toString().getBytes(StandardCharsets.UTF_8)));
+        transferService.importOrders(new ByteArrayInputStream(orders.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,9 +1,14 @@
 package com.goose.cinema;
 
+import com.goose.cinema.repository.CinemaRepositoryImpl;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableJpaRepositories(repositoryBaseClass = CinemaRepositoryImpl.class)
+@EnableScheduling
 public class GeniuseeTestApplication {
 
     public static void main(String[] args) {
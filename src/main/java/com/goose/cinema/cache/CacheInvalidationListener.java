@@ -0,0 +1,56 @@
+package com.goose.cinema.cache;
+
+import com.goose.cinema.notification.PostgresNotificationListener;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies evictions published by other nodes. When notifications may have been lost, such as
+ * across a reconnect of the shared listener, every cache is cleared instead.
+ */
+@Component
+public class CacheInvalidationListener implements PostgresNotificationListener.Subscriber {
+    private final CacheManager cacheManager;
+    private final CacheInvalidationPublisher publisher;
+
+    public CacheInvalidationListener(PostgresNotificationListener notificationListener, CacheManager cacheManager,
+                                     CacheInvalidationPublisher publisher) {
+        this.cacheManager = cacheManager;
+        this.publisher = publisher;
+        notificationListener.subscribe(CacheInvalidationPublisher.CHANNEL, this);
+    }
+
+    @Override
+    public void notified(String payload) {
+        apply(payload);
+    }
+
+    @Override
+    public void missed() {
+        clearAll();
+    }
+
+    void apply(String payload) {
+        String[] parts = payload.split("\\" + CacheInvalidationPublisher.SEPARATOR, 3);
+        if (parts.length != 3 || parts[0].equals(publisher.getNodeId())) return;
+        if (!cacheManager.getCacheNames().contains(parts[1])
+                || !(cacheManager.getCache(parts[1]) instanceof NotifyingCaffeineCache cache)) return;
+
+        if (CacheInvalidationPublisher.ALL_KEYS.equals(parts[2])) {
+            cache.clearLocally();
+        } else {
+            try {
+                cache.evictLocally(Long.valueOf(parts[2]));
+            } catch (NumberFormatException e) {
+                cache.clearLocally();
+            }
+        }
+    }
+
+    private void clearAll() {
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(NotifyingCaffeineCache.class::isInstance)
+                .forEach(cache -> ((NotifyingCaffeineCache) cache).clearLocally());
+    }
+}
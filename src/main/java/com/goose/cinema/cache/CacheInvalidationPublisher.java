@@ -0,0 +1,100 @@
+package com.goose.cinema.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Broadcasts cache evictions to the other nodes over Postgres NOTIFY. Evictions made inside a
+ * transaction are collected and sent once it commits, in a transaction of their own, so rolled back
+ * writes evict nothing remotely and a failed NOTIFY can't abort the write that caused it.
+ * <p>
+ * The send runs on the publisher's own thread: at afterCommit the writer still holds its connection,
+ * and taking a second one there lets a full pool of committing writers wait on each other.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationPublisher implements AutoCloseable {
+    static final String CHANNEL = "cinema_cache";
+    static final String ALL_KEYS = "*";
+    static final String SEPARATOR = "|";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(cacheName, key instanceof Long ? key.toString() : ALL_KEYS);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, ALL_KEYS);
+    }
+
+    private void publish(String cacheName, String key) {
+        String payload = String.join(SEPARATOR, nodeId, cacheName, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) pending().add(payload);
+        else send(List.of(payload));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> pending() {
+        List<String> pending = (List<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) return pending;
+
+        List<String> payloads = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, payloads);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                executor.execute(() -> send(payloads));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationPublisher.this);
+            }
+        });
+        return payloads;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void send(List<String> payloads) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> payloads.stream().distinct().forEach(payload ->
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {}, CHANNEL, payload)));
+        } catch (DataAccessException e) {
+            log.warn("Could not publish invalidations {}, other nodes will catch up by TTL", payloads, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.goose.cinema.cache;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caffeine cache whose evictions reach every node. Local entries are dropped right away and again
+ * after commit, so a concurrent reader can't put back a value the transaction is about to change.
+ */
+public class NotifyingCaffeineCache extends CaffeineCache {
+    private final CacheInvalidationPublisher publisher;
+
+    public NotifyingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                  boolean allowNullValues, CacheInvalidationPublisher publisher) {
+        super(name, cache, allowNullValues);
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictLocally(key);
+        publisher.publishEvict(getName(), key);
+        afterCommit(() -> evictLocally(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = getNativeCache().asMap().remove(key) != null;
+        publisher.publishEvict(getName(), key);
+        afterCommit(() -> evictLocally(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        clearLocally();
+        publisher.publishClear(getName());
+        afterCommit(this::clearLocally);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = !getNativeCache().asMap().isEmpty();
+        clear();
+        return notEmpty;
+    }
+
+    void evictLocally(Object key) {
+        super.evict(key);
+    }
+
+    void clearLocally() {
+        super.clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.goose.cinema.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+@RequiredArgsConstructor
+public class NotifyingCaffeineCacheManager extends CaffeineCacheManager {
+    private final CacheInvalidationPublisher publisher;
+
+    @Override
+    protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        return new NotifyingCaffeineCache(name, cache, isAllowNullValues(), publisher);
+    }
+}
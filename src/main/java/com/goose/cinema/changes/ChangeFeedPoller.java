@@ -0,0 +1,85 @@
+package com.goose.cinema.changes;
+
+import com.goose.cinema.controller.ConcurrencyLimit;
+import com.goose.cinema.dto.ChangeFeedDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.service.ChangeFeedService;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long polls the change feed: reads once, and while there is nothing new re-reads on every change
+ * notification until {@code wait} has passed. Waiting holds neither a request thread nor a connection;
+ * the first read runs under the request's permit and every re-read takes one from the concurrency limit.
+ */
+public class ChangeFeedPoller {
+    private final ChangeFeedService changeFeedService;
+    private final ChangeNotificationListener listener;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final Duration maxWait;
+    private final ExecutorService executor;
+
+    // concurrencyLimit is null when cinema.execution.mode=unbounded.
+    public ChangeFeedPoller(ChangeFeedService changeFeedService, ChangeNotificationListener listener,
+                            ConcurrencyLimit concurrencyLimit, Duration maxWait, int threads) {
+        this.changeFeedService = changeFeedService;
+        this.listener = listener;
+        this.concurrencyLimit = concurrencyLimit;
+        this.maxWait = maxWait;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<ChangeFeedDto> poll(long after, int limit, Duration wait) {
+        long deadline = System.nanoTime() + Math.max(0, Math.min(wait.toNanos(), maxWait.toNanos()));
+        CompletableFuture<ChangeFeedDto> result = new CompletableFuture<>();
+        attempt(after, limit, deadline, result);
+        return result;
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void attempt(long after, int limit, long deadline, CompletableFuture<ChangeFeedDto> result) {
+        // Taken before reading, so a commit between the read and the wait still wakes this poll.
+        CompletableFuture<Void> change = listener.nextChange();
+        try {
+            ChangeFeedDto feed = changeFeedService.read(after, limit);
+            if (!feed.getEvents().isEmpty() || System.nanoTime() - deadline >= 0) {
+                result.complete(feed);
+                return;
+            }
+            change.thenRunAsync(() -> reattempt(after, limit, deadline, result), executor);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void reattempt(long after, int limit, long deadline, CompletableFuture<ChangeFeedDto> result) {
+        if (concurrencyLimit == null) {
+            attempt(after, limit, deadline, result);
+            return;
+        }
+
+        Runnable release = concurrencyLimit.acquire();
+        if (release == null) {
+            result.completeExceptionally(new CinemaException(ErrorType.TOO_MANY_REQUESTS, "Too many requests"));
+            return;
+        }
+        try {
+            attempt(after, limit, deadline, result);
+        } finally {
+            release.run();
+        }
+    }
+}
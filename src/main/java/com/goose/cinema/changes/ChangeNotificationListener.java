@@ -0,0 +1,53 @@
+package com.goose.cinema.changes;
+
+import com.goose.cinema.notification.PostgresNotificationListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Completes {@link #nextChange()} at least every {@code recheckInterval}, which is how waiting readers
+ * find newly written events, and as soon as another reader has numbered some: writers don't notify,
+ * outbox_events_sequence does once it hands out positions. The recheck follows the shared listener's
+ * polls, so it is no more frequent than those.
+ */
+public class ChangeNotificationListener implements PostgresNotificationListener.Subscriber {
+    public static final String CHANNEL = "outbox_events";
+
+    private final long recheckNanos;
+
+    private volatile CompletableFuture<Void> change = new CompletableFuture<>();
+    private volatile long signalledAt = System.nanoTime();
+
+    public ChangeNotificationListener(PostgresNotificationListener notificationListener, Duration recheckInterval) {
+        this.recheckNanos = recheckInterval.toNanos();
+        notificationListener.subscribe(CHANNEL, this);
+    }
+
+    public CompletableFuture<Void> nextChange() {
+        return change;
+    }
+
+    @Override
+    public void notified(String payload) {
+        signal();
+    }
+
+    @Override
+    public void polled() {
+        if (System.nanoTime() - signalledAt >= recheckNanos) signal();
+    }
+
+    // Lost notifications, or no more to come: waiting readers re-read rather than wait for nothing.
+    @Override
+    public void missed() {
+        signal();
+    }
+
+    private void signal() {
+        signalledAt = System.nanoTime();
+        CompletableFuture<Void> signalled = change;
+        change = new CompletableFuture<>();
+        signalled.complete(null);
+    }
+}
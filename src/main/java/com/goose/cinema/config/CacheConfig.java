@@ -0,0 +1,61 @@
+package com.goose.cinema.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.goose.cinema.cache.CacheInvalidationPublisher;
+import com.goose.cinema.cache.NotifyingCaffeineCacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// Caching advice wraps the transactional one, so @CacheEvict runs only after the write is committed.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String MOVIES = "movies";
+    public static final String MOVIE_COUNTS = "movieCounts";
+    public static final String ORDER_COUNTS = "orderCounts";
+    public static final String IDEMPOTENCY_KEYS = "idempotencyKeys";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cinema.listing.count-ttl}") Duration countTtl,
+                                     @Value("${cinema.listing.count-cache-size}") long countCacheSize,
+                                     @Value("${cinema.cache.movies-size}") long moviesCacheSize,
+                                     @Value("${cinema.cache.movies-ttl}") Duration moviesTtl,
+                                     @Value("${cinema.idempotency.cache-size}") long idempotencyCacheSize,
+                                     @Value("${cinema.idempotency.ttl}") Duration idempotencyTtl,
+                                     CacheInvalidationPublisher publisher) {
+        CaffeineCacheManager cacheManager = new NotifyingCaffeineCacheManager(publisher);
+
+        // Evictions are broadcast to the other nodes; the TTL only bounds staleness if one is missed.
+        cacheManager.registerCustomCache(MOVIES, Caffeine.newBuilder()
+                .expireAfterWrite(moviesTtl)
+                .maximumSize(moviesCacheSize)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(MOVIE_COUNTS, countCache(countTtl, countCacheSize));
+        cacheManager.registerCustomCache(ORDER_COUNTS, countCache(countTtl, countCacheSize));
+        // Entries never change, so nothing is broadcast; the idempotency_keys table covers the other nodes.
+        cacheManager.registerCustomCache(IDEMPOTENCY_KEYS, Caffeine.newBuilder()
+                .expireAfterWrite(idempotencyTtl)
+                .maximumSize(idempotencyCacheSize)
+                .recordStats()
+                .build());
+
+        return cacheManager;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> countCache(Duration ttl, long size) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(size)
+                .recordStats()
+                .build();
+    }
+}
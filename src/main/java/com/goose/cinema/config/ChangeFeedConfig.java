@@ -0,0 +1,38 @@
+package com.goose.cinema.config;
+
+import com.goose.cinema.changes.ChangeFeedPoller;
+import com.goose.cinema.changes.ChangeNotificationListener;
+import com.goose.cinema.controller.ConcurrencyLimit;
+import com.goose.cinema.notification.PostgresNotificationListener;
+import com.goose.cinema.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class ChangeFeedConfig {
+    private final ChangeFeedService changeFeedService;
+
+    @Bean
+    public ChangeNotificationListener changeNotificationListener(
+            PostgresNotificationListener notificationListener,
+            @Value("${cinema.changes.recheck-interval}") Duration recheckInterval) {
+        return new ChangeNotificationListener(notificationListener, recheckInterval);
+    }
+
+    @Bean
+    public ChangeFeedPoller changeFeedPoller(ChangeNotificationListener changeNotificationListener,
+                                             ObjectProvider<ConcurrencyLimit> concurrencyLimit,
+                                             @Value("${cinema.changes.max-wait}") Duration maxWait,
+                                             @Value("${cinema.changes.poll-threads}") int pollThreads) {
+        return new ChangeFeedPoller(changeFeedService, changeNotificationListener, concurrencyLimit.getIfAvailable(),
+                maxWait, pollThreads);
+    }
+}
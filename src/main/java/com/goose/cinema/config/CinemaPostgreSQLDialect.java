@@ -0,0 +1,15 @@
+package com.goose.cinema.config;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.type.StandardBasicTypes;
+
+public class CinemaPostgreSQLDialect extends PostgreSQL10Dialect {
+
+    public CinemaPostgreSQLDialect() {
+        super();
+        registerFunction("trgm_similar", new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(?1 % ?2)"));
+        registerFunction("similarity", new StandardSQLFunction("similarity", StandardBasicTypes.FLOAT));
+    }
+}
@@ -0,0 +1,97 @@
+package com.goose.cinema.config;
+
+import com.goose.cinema.routing.Replica;
+import com.goose.cinema.routing.ReplicaRoutingDataSource;
+import com.goose.cinema.routing.ReplicaSelector;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * With cinema.datasource.replicas set, read-only transactions go round-robin to the replicas that
+ * pass the health check and are within cinema.datasource.replica-max-lag, everything else, Liquibase
+ * and LISTEN included, to spring.datasource.url. Replicas share the primary's credentials and pool settings.
+ */
+@Configuration
+@ConditionalOnExpression("!'${cinema.datasource.replicas:}'.isBlank()")
+public class DataSourceRoutingConfig {
+    @Value("${cinema.datasource.replicas}")
+    private List<String> replicaUrls;
+
+    @Value("${cinema.datasource.replica-max-lag}")
+    private Duration maxLag;
+
+    @Value("${cinema.datasource.replica-check-interval}")
+    private Duration checkInterval;
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaSelector replicaSelector(@Qualifier("primaryDataSource") DataSource primaryDataSource)
+            throws SQLException {
+        HikariDataSource primary = primaryDataSource.unwrap(HikariDataSource.class);
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + i;
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(replicaUrls.get(i).strip());
+            config.setPoolName(name);
+            config.setReadOnly(true);
+            // A replica that is down at startup only stays out of rotation.
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(name, MetricsConfig.recordStatements(new HikariDataSource(config), name)));
+        }
+
+        ReplicaSelector selector = new ReplicaSelector(replicas, maxLag, checkInterval);
+        selector.check();
+        return selector;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 ReplicaSelector replicaSelector) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        replicaSelector.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaSelector);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaSelector replicaSelector) {
+        // Reads fall back to the primary, so an unhealthy replica is reported but does not make the service DOWN.
+        return () -> Health.up().withDetails(replicaSelector.status()).build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.goose.cinema.config;
+
+import com.goose.cinema.controller.ConcurrencyLimit;
+import com.goose.cinema.controller.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// cinema.execution.mode=unbounded restores plain thread-per-request handling without admission control.
+@Configuration
+@ConditionalOnProperty(name = "cinema.execution.mode", havingValue = "bounded", matchIfMissing = true)
+public class ExecutionConfig {
+
+    @Bean
+    public ConcurrencyLimit concurrencyLimit(@Value("${cinema.execution.max-concurrent-requests}") int maxConcurrent,
+                                             @Value("${cinema.execution.queue-timeout}") Duration queueTimeout,
+                                             MeterRegistry meterRegistry) {
+        return new ConcurrencyLimit(maxConcurrent, queueTimeout, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ConcurrencyLimit concurrencyLimit,
+            @Value("${cinema.execution.retry-after}") Duration retryAfter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(concurrencyLimit, retryAfter));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
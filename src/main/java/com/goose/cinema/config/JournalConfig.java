@@ -0,0 +1,64 @@
+package com.goose.cinema.config;
+
+import com.goose.cinema.journal.JournalWriter;
+import com.goose.cinema.journal.JournaledOrder;
+import com.goose.cinema.journal.OrderJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// cinema.orders.ingest=journal acknowledges POST /api/orders once journaled and writes them behind, see OrderIngestServiceI.
+@Configuration
+@ConditionalOnProperty(name = "cinema.orders.ingest", havingValue = "journal")
+public class JournalConfig {
+    // Each eviction is a NOTIFY round trip, so a batch touching more movies clears the cache once instead.
+    private static final int MAX_EVICTIONS = 16;
+
+    @Bean
+    public JournalWriter journalWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                       @Value("${cinema.orders.journal.writers}") int writers,
+                                       @Value("${cinema.orders.journal.batch-size}") int batchSize,
+                                       @Value("${cinema.orders.journal.writer-queue-size}") int queueSize,
+                                       @Value("${cinema.orders.journal.max-delay}") Duration maxDelay,
+                                       @Value("${cinema.orders.journal.retry-delay}") Duration retryDelay,
+                                       @Value("${cinema.orders.journal.drain-timeout}") Duration drainTimeout,
+                                       MeterRegistry meterRegistry) {
+        return new JournalWriter(jdbcTemplate, new TransactionTemplate(transactionManager), writers, batchSize, queueSize,
+                maxDelay, retryDelay, drainTimeout, meterRegistry);
+    }
+
+    // Closed before the writer, so appends still queued reach it before it drains.
+    @Bean
+    public OrderJournal orderJournal(JournalWriter journalWriter, CacheManager cacheManager,
+                                     @Value("${cinema.orders.journal.directory}") Path directory,
+                                     @Value("${cinema.orders.journal.segment-size}") DataSize segmentSize,
+                                     @Value("${cinema.orders.journal.group-size}") int groupSize,
+                                     @Value("${cinema.orders.journal.queue-size}") int queueSize,
+                                     MeterRegistry meterRegistry) {
+        OrderJournal journal = new OrderJournal(directory, segmentSize.toBytes(), groupSize, queueSize,
+                journalWriter::enqueue);
+        meterRegistry.gauge("cinema.orders.journal.queued", journal, OrderJournal::backlog);
+
+        Cache movies = cacheManager.getCache(CacheConfig.MOVIES);
+        journalWriter.start(flushed -> {
+            journal.flushed(flushed);
+            Set<Long> movieIds = flushed.stream().map(JournaledOrder::getMovieId).collect(Collectors.toSet());
+            if (movieIds.size() > MAX_EVICTIONS) movies.clear();
+            else movieIds.forEach(movies::evict);
+        });
+        return journal;
+    }
+}
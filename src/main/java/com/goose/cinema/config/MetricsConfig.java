@@ -0,0 +1,61 @@
+package com.goose.cinema.config;
+
+import com.goose.cinema.metrics.SqlStatementMetricsInterceptor;
+import com.goose.cinema.metrics.StatementRecordingListener;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cinema.sql.max-statements}")
+    private long maxStatements;
+
+    @Value("${cinema.sql.slow-statement}")
+    private Duration slowStatement;
+
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Every pool is wrapped once, so statements outside Hibernate (JdbcTemplate, COPY setup) count as well.
+    @Bean
+    public static BeanPostProcessor statementRecordingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource dataSource)) return bean;
+
+                return recordStatements(dataSource, beanName);
+            }
+        };
+    }
+
+    static DataSource recordStatements(DataSource dataSource, String name) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(name)
+                .listener(new StatementRecordingListener())
+                .build();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementMetricsInterceptor(meterRegistry, maxStatements, slowStatement))
+                .addPathPatterns("/api/**");
+    }
+}
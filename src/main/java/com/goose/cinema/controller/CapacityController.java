@@ -0,0 +1,31 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.CapacityDto;
+import com.goose.cinema.service.CapacityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/movies/{id}/capacity")
+public class CapacityController {
+    private final CapacityService capacityService;
+
+    @GetMapping
+    public CapacityDto findByMovieId(@PathVariable Long id) {return capacityService.findByMovieId(id);}
+
+    @PutMapping
+    public CapacityDto update(@PathVariable Long id, @RequestBody CapacityDto capacityDto) {
+        return capacityService.update(id, capacityDto.getSeats());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<String> delete(@PathVariable Long id) {
+        capacityService.delete(id);
+        return ResponseEntity.status(200).contentType(MediaType.APPLICATION_JSON).body("ok");
+    }
+}
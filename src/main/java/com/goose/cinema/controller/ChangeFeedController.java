@@ -0,0 +1,36 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.changes.ChangeFeedPoller;
+import com.goose.cinema.dto.ChangeFeedDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/changes")
+public class ChangeFeedController {
+    private final ChangeFeedPoller changeFeedPoller;
+
+    // wait is in seconds, capped at cinema.changes.max-wait; without it the read returns at once.
+    @GetMapping
+    public DeferredResult<ChangeFeedDto> read(@RequestParam(value = "after", defaultValue = "0") long after,
+                                              @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                              @RequestParam(value = "wait", defaultValue = "0") long waitSeconds,
+                                              HttpServletRequest request) {
+        request.setAttribute(ConcurrencyLimitFilter.RELEASE_WHILE_ASYNC, true);
+        DeferredResult<ChangeFeedDto> result = new DeferredResult<>();
+        changeFeedPoller.poll(after, limit, Duration.ofSeconds(waitSeconds)).whenComplete((feed, error) -> {
+            if (error == null) result.setResult(feed);
+            else result.setErrorResult(error instanceof CompletionException ? error.getCause() : error);
+        });
+        return result;
+    }
+}
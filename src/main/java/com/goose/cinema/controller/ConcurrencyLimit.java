@@ -0,0 +1,53 @@
+package com.goose.cinema.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One permit per database connection, shared by API requests and the reads they hand off to other
+ * threads. A caller waits up to {@code queueTimeout} for a permit and is turned away after that.
+ */
+public class ConcurrencyLimit {
+    public static final String REJECTED_METRIC = "cinema.requests.rejected";
+
+    private final Semaphore permits;
+    private final Duration queueTimeout;
+    private final Counter rejected;
+
+    public ConcurrencyLimit(int maxConcurrent, Duration queueTimeout, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.queueTimeout = queueTimeout;
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("API requests rejected because every database connection was busy")
+                .register(meterRegistry);
+        Gauge.builder("cinema.requests.active", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .description("API requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return releases the permit and may run more than once, or null when none was free within the queue timeout
+     */
+    public Runnable acquire() {
+        try {
+            if (permits.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) return releaseOnce();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return null;
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) permits.release();
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.exception.ErrorType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Admits at most as many API requests as there are database connections; the rest wait
+ * up to the limit's queue timeout and are then rejected with 429 instead of piling up on
+ * request threads that would only block on the pool.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    /**
+     * Set by handlers whose async part waits without a connection, such as long polls; their permit is
+     * released when the request goes async, and reads made while waiting take permits of their own.
+     */
+    public static final String RELEASE_WHILE_ASYNC = ConcurrencyLimitFilter.class.getName() + ".RELEASE_WHILE_ASYNC";
+
+    private final ConcurrencyLimit concurrencyLimit;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimit concurrencyLimit, Duration retryAfter) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Runnable release = concurrencyLimit.acquire();
+        if (release == null) {
+            response.setStatus(ErrorType.TOO_MANY_REQUESTS.getHttpError());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("Too many requests");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Streamed exports keep their connection until the async part completes.
+            if (request.isAsyncStarted() && request.getAttribute(RELEASE_WHILE_ASYNC) == null) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.MovieVersionDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Entity tags are built from row versions. The full movie view also depends on its orders,
+ * so its tag carries a digest of their (id, version) pairs after the movie version.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ETags {
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(MovieVersionDto movie) {
+        return "\"" + movie.getVersion() + "." + movie.getOrdersDigest() + "\"";
+    }
+
+    static boolean notModified(WebRequest request, Supplier<String> etag) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(etag.get());
+    }
+
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/") || tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new CinemaException(ErrorType.PRECONDITION_FAILED, "If-Match should be a single strong entity tag");
+        }
+        tag = tag.substring(1, tag.length() - 1);
+        int dot = tag.indexOf('.');
+        try {
+            return Long.valueOf(dot < 0 ? tag : tag.substring(0, dot));
+        } catch (NumberFormatException e) {
+            throw new CinemaException(ErrorType.PRECONDITION_FAILED, "Unknown entity tag");
+        }
+    }
+}
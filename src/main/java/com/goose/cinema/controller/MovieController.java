@@ -1,38 +1,106 @@
 package com.goose.cinema.controller;
 
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.MovieDto;
 import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.MovieVersionDto;
+import com.goose.cinema.dto.NameMatch;
 import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.service.MovieService;
+import com.goose.cinema.service.TransferService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/api/movies")
 
 public class MovieController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
     private final MovieService movieService;
+    private final TransferService transferService;
 
     @GetMapping("/{id}")
-    public MovieDtoAll findById(@PathVariable Long id) {return movieService.findById(id);}
+    public ResponseEntity<MovieDtoAll> findById(@PathVariable Long id, WebRequest request) {
+        if (ETags.notModified(request, () -> ETags.of(movieService.findVersionById(id)))) return null;
+
+        MovieDtoAll movie = movieService.findById(id);
+        return ResponseEntity.ok().eTag(ETags.of(MovieVersionDto.of(movie))).body(movie);
+    }
+
+    @GetMapping(value = "/{id}", params = "view=summary")
+    public ResponseEntity<MovieDto> findSummaryById(@PathVariable Long id, WebRequest request) {
+        if (ETags.notModified(request, () -> ETags.of(movieService.findVersionById(id).getVersion()))) return null;
+
+        MovieDto movie = movieService.findSummaryById(id);
+        return ResponseEntity.ok().eTag(ETags.of(movie.getVersion())).body(movie);
+    }
+
+    @GetMapping("/{id}/orders")
+    public CursorPage<OrderDto> findOrders(@PathVariable Long id,
+                                           @RequestParam(value = "after", required = false) String after,
+                                           @RequestParam(value = "size", defaultValue = "100") Integer size) {
+        return movieService.findOrders(id, after, size);
+    }
 
     @PostMapping("/all")
-    public Page<MovieDtoAll> findAll(@RequestBody(required = false) MovieDto movieDto,
-                                     @RequestParam("page") Integer page,
-                                     @RequestParam("size") Integer size) {
-        return movieService.searchAll(movieDto, PageRequest.of(page, size));
+    public Slice<MovieDtoAll> findAll(@RequestBody(required = false) MovieDto movieDto,
+                                      @RequestParam("page") Integer page,
+                                      @RequestParam("size") Integer size,
+                                      @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal,
+                                      @RequestParam(value = "include", defaultValue = "orders") String include,
+                                      @RequestParam(value = "match", defaultValue = "substring") String match) {
+        return movieService.searchAll(movieDto, NameMatch.of(match), PageRequest.of(page, size),
+                withTotal, MovieInclude.of(include));
+    }
+
+    @PostMapping(value = "/all", params = "!page")
+    public CursorPage<MovieDtoAll> findAllAfter(@RequestBody(required = false) MovieDto movieDto,
+                                                @RequestParam(value = "after", required = false) String after,
+                                                @RequestParam("size") Integer size,
+                                                @RequestParam(value = "include", defaultValue = "orders") String include,
+                                                @RequestParam(value = "match", defaultValue = "substring") String match) {
+        return movieService.searchAfter(movieDto, NameMatch.of(match), after, size, MovieInclude.of(include));
     }
 
     @PostMapping
     public MovieDtoAll create(@RequestBody MovieDto movieDto) {return movieService.create(movieDto);}
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public long importMovies(InputStream csv) {return transferService.importMovies(csv);}
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMovies() {
+        return ResponseEntity.ok().contentType(TEXT_CSV).body(transferService::exportMovies);
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMovies(@RequestBody(required = false) MovieDto movieDto,
+                                                              @RequestParam(value = "match", defaultValue = "substring") String match) {
+        NameMatch nameMatch = NameMatch.of(match);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjson -> transferService.streamMovies(movieDto, nameMatch, ndjson));
+    }
+
     @PatchMapping
-    public MovieDtoAll update(@RequestBody MovieDto movieDto) {return movieService.update(movieDto);}
+    public ResponseEntity<MovieDtoAll> update(@RequestBody MovieDto movieDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        MovieDtoAll movie = movieService.update(movieDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(MovieVersionDto.of(movie))).body(movie);
+    }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<String> delete(@PathVariable Long id) {
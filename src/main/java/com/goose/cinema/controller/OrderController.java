@@ -1,35 +1,86 @@
 package com.goose.cinema.controller;
 
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.service.OrderService;
+import com.goose.cinema.service.TransferService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/api/orders")
 public class OrderController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
     private final OrderService orderService;
+    private final TransferService transferService;
 
     @GetMapping("/{id}")
-    public OrderDto findById(@PathVariable Long id) {return orderService.findById(id);}
+    public ResponseEntity<OrderDto> findById(@PathVariable Long id, WebRequest request) {
+        if (ETags.notModified(request, () -> ETags.of(orderService.findVersionById(id)))) return null;
+
+        OrderDto order = orderService.findById(id);
+        return ResponseEntity.ok().eTag(ETags.of(order.getVersion())).body(order);
+    }
 
     @PostMapping("/all")
-    public Page<OrderDto> findAll(@RequestBody(required = false) OrderDto orderDto,
-                                  @RequestParam("page") Integer page,
-                                  @RequestParam("size") Integer size) {
-        return orderService.searchAll(orderDto, PageRequest.of(page, size));
+    public Slice<OrderDto> findAll(@RequestBody(required = false) OrderDto orderDto,
+                                   @RequestParam("page") Integer page,
+                                   @RequestParam("size") Integer size,
+                                   @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
+        return orderService.searchAll(orderDto, PageRequest.of(page, size), withTotal);
     }
 
+    @PostMapping(value = "/all", params = "!page")
+    public CursorPage<OrderDto> findAllAfter(@RequestBody(required = false) OrderDto orderDto,
+                                             @RequestParam(value = "after", required = false) String after,
+                                             @RequestParam("size") Integer size) {
+        return orderService.searchAfter(orderDto, after, size);
+    }
+
+    // With write-behind ingestion enabled, orders without an Idempotency-Key go to OrderIngestController.
     @PostMapping
-    public OrderDto create(@RequestBody OrderDto orderDto) {return orderService.create(orderDto);}
+    public OrderDto create(@RequestBody OrderDto orderDto,
+                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return orderService.create(orderDto, idempotencyKey);
+    }
+
+    @PostMapping("/batch")
+    public List<OrderDto> createAll(@RequestBody List<OrderDto> orderDtos) {return orderService.createAll(orderDtos);}
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public long importOrders(InputStream csv) {return transferService.importOrders(csv);}
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        return ResponseEntity.ok().contentType(TEXT_CSV).body(transferService::exportOrders);
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders(@RequestBody(required = false) OrderDto orderDto) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjson -> transferService.streamOrders(orderDto, ndjson));
+    }
 
     @PatchMapping
-    public OrderDto update(@RequestBody OrderDto orderDto) {return orderService.update(orderDto);}
+    public ResponseEntity<OrderDto> update(@RequestBody OrderDto orderDto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        OrderDto order = orderService.update(orderDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(order.getVersion())).body(order);
+    }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<String> delete(@PathVariable Long id) {
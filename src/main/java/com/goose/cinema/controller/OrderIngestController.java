@@ -0,0 +1,37 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.service.OrderIngestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * With write-behind ingestion enabled, takes POST /api/orders without an Idempotency-Key from
+ * OrderController and answers 202 once the order is journaled. The wait for the journal's fsync
+ * holds neither a thread nor a concurrency permit, so one fsync acknowledges every order that
+ * arrived meanwhile rather than at most max-concurrent-requests of them.
+ */
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/orders")
+@ConditionalOnProperty(name = "cinema.orders.ingest", havingValue = "journal")
+public class OrderIngestController {
+    private final OrderIngestService orderIngestService;
+
+    @PostMapping(headers = "!Idempotency-Key")
+    public CompletableFuture<ResponseEntity<OrderDto>> create(@RequestBody OrderDto orderDto,
+                                                              HttpServletRequest request) {
+        request.setAttribute(ConcurrencyLimitFilter.RELEASE_WHILE_ASYNC, true);
+        return orderIngestService.accept(orderDto).thenApply(order -> ResponseEntity.accepted().body(order));
+    }
+}
@@ -0,0 +1,54 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.MovieVersionDto;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.service.ReactiveMovieService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/movies")
+public class ReactiveMovieController {
+
+    private final ReactiveMovieService movieService;
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<MovieDtoAll>> findById(@PathVariable Long id) {
+        return movieService.findById(id)
+                .map(movie -> ResponseEntity.ok().eTag(ETags.of(MovieVersionDto.of(movie))).body(movie));
+    }
+
+    @GetMapping(value = "/{id}/orders", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<OrderDto> findOrders(@PathVariable Long id) {return movieService.findOrders(id);}
+
+    @PostMapping(value = "/all", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<MovieDto> findAll(@RequestBody(required = false) MovieDto movieDto) {
+        return movieService.searchAll(movieDto);
+    }
+
+    @PostMapping
+    public Mono<MovieDtoAll> create(@RequestBody MovieDto movieDto) {return movieService.create(movieDto);}
+
+    @PatchMapping
+    public Mono<ResponseEntity<MovieDtoAll>> update(@RequestBody MovieDto movieDto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return movieService.update(movieDto, ETags.expectedVersion(ifMatch))
+                .map(movie -> ResponseEntity.ok().eTag(ETags.of(movie.getVersion())).body(movie));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> delete(@PathVariable Long id) {
+        return movieService.delete(id)
+                .thenReturn(ResponseEntity.status(200).contentType(MediaType.APPLICATION_JSON).body("ok"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.service.ReactiveOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/orders")
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService orderService;
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<OrderDto>> findById(@PathVariable Long id) {
+        return orderService.findById(id)
+                .map(order -> ResponseEntity.ok().eTag(ETags.of(order.getVersion())).body(order));
+    }
+
+    @PostMapping(value = "/all", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<OrderDto> findAll(@RequestBody(required = false) OrderDto orderDto) {
+        return orderService.searchAll(orderDto);
+    }
+
+    @PostMapping
+    public Mono<OrderDto> create(@RequestBody OrderDto orderDto) {return orderService.create(orderDto);}
+
+    @PatchMapping
+    public Mono<ResponseEntity<OrderDto>> update(@RequestBody OrderDto orderDto,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return orderService.update(orderDto, ETags.expectedVersion(ifMatch))
+                .map(order -> ResponseEntity.ok().eTag(ETags.of(order.getVersion())).body(order));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> delete(@PathVariable Long id) {
+        return orderService.delete(id)
+                .thenReturn(ResponseEntity.status(200).contentType(MediaType.APPLICATION_JSON).body("ok"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.CostBandReportDto;
+import com.goose.cinema.dto.ReleaseYearReportDto;
+import com.goose.cinema.dto.WeeklyReportDto;
+import com.goose.cinema.service.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/reports")
+public class ReportController {
+    private static final int DEFAULT_WEEKS = 12;
+
+    private final ReportService reportService;
+
+    @GetMapping("/weekly")
+    public List<WeeklyReportDto> findWeekly(@RequestParam(value = "from", required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(value = "to", required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = Objects.requireNonNullElseGet(to, LocalDate::now);
+        LocalDate start = Objects.requireNonNullElseGet(from, () -> end.minusWeeks(DEFAULT_WEEKS));
+        return reportService.findWeekly(start, end);
+    }
+
+    @GetMapping("/release-years")
+    public List<ReleaseYearReportDto> findReleaseYears() {return reportService.findReleaseYears();}
+
+    @GetMapping("/cost-bands")
+    public List<CostBandReportDto> findCostBands() {return reportService.findCostBands();}
+}
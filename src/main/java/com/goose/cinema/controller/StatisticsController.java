@@ -0,0 +1,44 @@
+package com.goose.cinema.controller;
+
+import com.goose.cinema.dto.BoxOfficeDayDto;
+import com.goose.cinema.dto.BoxOfficeDto;
+import com.goose.cinema.dto.BoxOfficeRanking;
+import com.goose.cinema.service.StatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+@RestController
+@Profile("!reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/statistics")
+public class StatisticsController {
+    private static final int DEFAULT_DAYS = 30;
+
+    private final StatisticsService statisticsService;
+
+    @GetMapping("/movies/{id}")
+    public BoxOfficeDto findTotals(@PathVariable Long id) {return statisticsService.findTotals(id);}
+
+    @GetMapping("/movies/{id}/daily")
+    public List<BoxOfficeDayDto> findDaily(@PathVariable Long id,
+                                           @RequestParam(value = "from", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(value = "to", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = Objects.requireNonNullElseGet(to, LocalDate::now);
+        LocalDate start = Objects.requireNonNullElseGet(from, () -> end.minusDays(DEFAULT_DAYS - 1));
+        return statisticsService.findDaily(id, start, end);
+    }
+
+    @GetMapping("/top")
+    public List<BoxOfficeDto> findTop(@RequestParam(value = "limit", defaultValue = "10") Integer limit,
+                                      @RequestParam(value = "by", defaultValue = "tickets") String by) {
+        return statisticsService.findTop(limit, BoxOfficeRanking.of(by));
+    }
+}
@@ -0,0 +1,19 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoxOfficeDto {
+    private Long movieId;
+    private Long orders;
+    private Long tickets;
+    private Long revenue;
+
+    public static BoxOfficeDto empty(Long movieId) {
+        return new BoxOfficeDto(movieId, 0L, 0L, 0L);
+    }
+}
@@ -0,0 +1,18 @@
+package com.goose.cinema.dto;
+
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+
+import java.util.Arrays;
+
+public enum BoxOfficeRanking {
+    TICKETS,
+    REVENUE;
+
+    public static BoxOfficeRanking of(String value) {
+        return Arrays.stream(values())
+                .filter(ranking -> ranking.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new CinemaException(ErrorType.BAD_REQUEST, "Unknown ranking: " + value));
+    }
+}
@@ -0,0 +1,14 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityDto {
+    private Long movieId;
+    private Integer seats;
+    private Integer available;
+}
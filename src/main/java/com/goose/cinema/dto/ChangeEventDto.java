@@ -0,0 +1,21 @@
+package com.goose.cinema.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventDto {
+    private Long position;
+    private String aggregate;
+    private Long aggregateId;
+    private String type;
+    @JsonRawValue
+    private String payload;
+    private Instant createdAt;
+}
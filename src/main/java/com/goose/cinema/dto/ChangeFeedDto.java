@@ -0,0 +1,16 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// next is the position to pass as after on the following read.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedDto {
+    private List<ChangeEventDto> events;
+    private long next;
+}
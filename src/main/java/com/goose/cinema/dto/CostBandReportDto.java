@@ -0,0 +1,17 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CostBandReportDto {
+    private Integer minCost;
+    private Integer maxCost;
+    private Long movies;
+    private Long orders;
+    private Long tickets;
+    private Long revenue;
+}
@@ -10,4 +10,5 @@ public class MovieDto {
     private String name;
     private LocalDate releaseDate;
     private Integer cost;
+    private Long version;
 }
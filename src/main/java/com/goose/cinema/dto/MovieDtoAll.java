@@ -1,5 +1,6 @@
 package com.goose.cinema.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.goose.cinema.dto.OrderDto;
 import lombok.Data;
 
@@ -13,5 +14,7 @@ public class MovieDtoAll {
     private String name;
     private LocalDate releaseDate;
     private Integer cost;
+    private Long version;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<OrderDto> orders;
 }
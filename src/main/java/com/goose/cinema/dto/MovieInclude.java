@@ -0,0 +1,18 @@
+package com.goose.cinema.dto;
+
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+
+import java.util.Arrays;
+
+public enum MovieInclude {
+    ORDERS,
+    NONE;
+
+    public static MovieInclude of(String value) {
+        return Arrays.stream(values())
+                .filter(include -> include.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new CinemaException(ErrorType.BAD_REQUEST, "Unknown include: " + value));
+    }
+}
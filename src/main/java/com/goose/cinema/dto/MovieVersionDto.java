@@ -0,0 +1,32 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieVersionDto {
+    private Long version;
+    /** MD5 of the movie's "id:version" order pairs ordered by id and joined with ','. */
+    private String ordersDigest;
+
+    public static MovieVersionDto of(MovieDtoAll movie) {
+        List<OrderDto> orders = Objects.requireNonNullElse(movie.getOrders(), List.of());
+
+        String pairs = orders.stream()
+                .sorted(Comparator.comparing(OrderDto::getId))
+                .map(order -> order.getId() + ":" + Objects.requireNonNullElse(order.getVersion(), 0L))
+                .collect(Collectors.joining(","));
+        return new MovieVersionDto(movie.getVersion(),
+                DigestUtils.md5DigestAsHex(pairs.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,19 @@
+package com.goose.cinema.dto;
+
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+
+import java.util.Arrays;
+
+public enum NameMatch {
+    SUBSTRING,
+    PREFIX,
+    FUZZY;
+
+    public static NameMatch of(String value) {
+        return Arrays.stream(values())
+                .filter(match -> match.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new CinemaException(ErrorType.BAD_REQUEST, "Unknown match: " + value));
+    }
+}
@@ -11,4 +11,5 @@ public class OrderDto {
     private Long movieId;
     private LocalDate orderTime;
     private Integer participants;
+    private Long version;
 }
@@ -0,0 +1,16 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReleaseYearReportDto {
+    private Integer releaseYear;
+    private Long movies;
+    private Long orders;
+    private Long tickets;
+    private Long revenue;
+}
@@ -0,0 +1,17 @@
+package com.goose.cinema.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeeklyReportDto {
+    private LocalDate week;
+    private Long orders;
+    private Long tickets;
+    private Long revenue;
+}
@@ -7,7 +7,12 @@ import lombok.RequiredArgsConstructor;
 public enum ErrorType {
     INTERNAL_ERROR(500),
     NOT_FOUND(404),
-    ALREADY_OCCUPIED(400);
+    BAD_REQUEST(400),
+    ALREADY_OCCUPIED(400),
+    CONFLICT(409),
+    GONE(410),
+    PRECONDITION_FAILED(412),
+    TOO_MANY_REQUESTS(429);
     private final int httpError;
 
     ErrorType(int httpError) {this.httpError = httpError;}
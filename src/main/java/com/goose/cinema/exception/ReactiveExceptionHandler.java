@@ -0,0 +1,28 @@
+package com.goose.cinema.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Same error mapping as ResponseStatusExceptionHandler, which is tied to Spring MVC.
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(CinemaException.class)
+    protected ResponseEntity<Object> handleCinemaException(CinemaException e) {
+        return ResponseEntity.status(e.getErrorType().getHttpError())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    protected ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(ErrorType.PRECONDITION_FAILED.getHttpError())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("Modified concurrently");
+    }
+}
@@ -1,5 +1,7 @@
 package com.goose.cinema.exception;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -7,6 +9,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @RestControllerAdvice
+@Profile("!reactive")
 public class ResponseStatusExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(CinemaException.class)
@@ -17,6 +20,13 @@ public class ResponseStatusExceptionHandler extends ResponseEntityExceptionHandl
                 .body(e.getMessage());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    protected ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(ErrorType.PRECONDITION_FAILED.getHttpError())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("Modified concurrently");
+    }
+
     @ExceptionHandler(Exception.class)
     protected ResponseEntity<Object> handleRuntimeexception(Exception e) {
         e.printStackTrace();
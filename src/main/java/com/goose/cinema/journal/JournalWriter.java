@@ -0,0 +1,199 @@
+package com.goose.cinema.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Copies journaled orders into Postgres from a number of threads, each committing batches of up to
+ * batchSize and waiting at most maxDelay for a batch to fill. Inserts skip ids that already exist,
+ * so replaying the journal is harmless.
+ * <p>
+ * The queue is bounded and {@link #enqueue(List)} blocks while it is full, so a stalled database
+ * holds up the journal until it refuses new orders instead of buffering them in memory.
+ * <p>
+ * A batch that breaks a constraint is retried order by order. The offending orders are recorded
+ * in order_rejections, so looking them up reports the refusal, and counted as rejected; any other
+ * failure is retried until it succeeds or the writer is closed, leaving the orders in the journal
+ * for the next start.
+ */
+@Slf4j
+public class JournalWriter implements AutoCloseable {
+    public static final String FLUSHED_METRIC = "cinema.orders.journal.flushed";
+    public static final String REJECTED_METRIC = "cinema.orders.journal.rejected";
+    private static final String INSERT = "INSERT INTO orders (id, movie_id, order_time, participants, version) "
+            + "VALUES (?, ?, ?, ?, 0) ON CONFLICT (id) DO NOTHING";
+    private static final String REJECT = "INSERT INTO order_rejections (order_id, movie_id, sql_state, constraint_name) "
+            + "VALUES (?, ?, ?, ?) ON CONFLICT (order_id) DO NOTHING";
+
+    private final BlockingQueue<JournaledOrder> queue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final Duration retryDelay;
+    private final Duration drainTimeout;
+    private final Counter flushedCounter;
+    private final Counter rejectedCounter;
+    private final List<Thread> threads;
+
+    private volatile boolean running = true;
+    private Consumer<List<JournaledOrder>> onFlushed;
+
+    public JournalWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int writers, int batchSize,
+                         int queueSize, Duration maxDelay, Duration retryDelay, Duration drainTimeout,
+                         MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.retryDelay = retryDelay;
+        this.drainTimeout = drainTimeout;
+        this.flushedCounter = Counter.builder(FLUSHED_METRIC)
+                .description("Journaled orders stored in the database")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(REJECTED_METRIC)
+                .description("Journaled orders the database refused")
+                .register(meterRegistry);
+        meterRegistry.gauge("cinema.orders.journal.pending", queue, BlockingQueue::size);
+        this.threads = IntStream.range(0, writers)
+                .mapToObj(i -> new Thread(this::run, "order-journal-writer-" + i))
+                .toList();
+    }
+
+    /**
+     * Starts writing; onFlushed hears about every batch once it is committed or rejected.
+     */
+    public void start(Consumer<List<JournaledOrder>> onFlushed) {
+        this.onFlushed = onFlushed;
+        threads.forEach(Thread::start);
+    }
+
+    // Orders dropped on interrupt are still in the journal and replayed on the next start.
+    public void enqueue(List<JournaledOrder> orders) {
+        try {
+            for (JournaledOrder order : orders) queue.put(order);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int backlog() {return queue.size();}
+
+    /**
+     * Gives the writer up to drainTimeout to store what is queued; the rest is replayed on the next start.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (!queue.isEmpty() && System.nanoTime() < deadline) Thread.sleep(10);
+
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        List<JournaledOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                nextBatch(batch);
+                if (!batch.isEmpty()) flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void nextBatch(List<JournaledOrder> batch) throws InterruptedException {
+        JournaledOrder first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) return;
+
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+
+            long left = deadline - System.nanoTime();
+            JournaledOrder next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+            if (next == null) break;
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<JournaledOrder> batch) throws InterruptedException {
+        // The rollup and capacity triggers lock movie rows in movie_id order per statement; sorting keeps
+        // that order across the several statements a batch is split into, so writers cannot deadlock.
+        batch.sort(Comparator.comparingLong(JournaledOrder::getMovieId));
+        int stored = batch.size();
+        while (true) {
+            try {
+                try {
+                    insert(batch);
+                } catch (DataIntegrityViolationException e) {
+                    stored = (int) batch.stream().filter(this::insertOrReject).count();
+                }
+                break;
+            } catch (DataAccessException e) {
+                log.warn("Storing {} journaled orders failed, retrying in {}", batch.size(), retryDelay, e);
+                Thread.sleep(retryDelay.toMillis());
+            }
+        }
+
+        flushedCounter.increment(stored);
+        onFlushed.accept(List.copyOf(batch));
+    }
+
+    private boolean insertOrReject(JournaledOrder order) {
+        try {
+            insert(List.of(order));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            Throwable cause = e.getMostSpecificCause();
+            String sqlState = cause instanceof SQLException sqlException ? sqlException.getSQLState() : null;
+            ServerErrorMessage message = cause instanceof PSQLException psqlException
+                    ? psqlException.getServerErrorMessage() : null;
+            String constraint = message != null ? message.getConstraint() : null;
+            jdbcTemplate.update(REJECT, order.getId(), order.getMovieId(), sqlState, constraint);
+
+            rejectedCounter.increment();
+            log.warn("Rejected journaled order {} for movie {} with {} participants: {}", order.getId(),
+                    order.getMovieId(), order.getParticipants(), cause.getMessage());
+            return false;
+        }
+    }
+
+    private void insert(List<JournaledOrder> orders) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, orders, orders.size(),
+                (statement, order) -> {
+                    statement.setLong(1, order.getId());
+                    statement.setLong(2, order.getMovieId());
+                    statement.setDate(3, Date.valueOf(order.getOrderTime()));
+                    statement.setInt(4, order.getParticipants());
+                }));
+    }
+}
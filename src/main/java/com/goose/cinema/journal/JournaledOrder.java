@@ -0,0 +1,21 @@
+package com.goose.cinema.journal;
+
+import lombok.Value;
+import lombok.With;
+
+import java.time.LocalDate;
+
+// segment is where the journal stored the order, set once it is durable.
+@Value
+@With
+public class JournaledOrder {
+    long segment;
+    long id;
+    long movieId;
+    int participants;
+    LocalDate orderTime;
+
+    public static JournaledOrder of(long id, long movieId, int participants, LocalDate orderTime) {
+        return new JournaledOrder(-1, id, movieId, participants, orderTime);
+    }
+}
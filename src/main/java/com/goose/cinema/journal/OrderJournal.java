@@ -0,0 +1,315 @@
+package com.goose.cinema.journal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted orders, in fixed-size checksummed records split into numbered
+ * segment files. One thread writes whatever appends are waiting as a group, forces them to disk
+ * once and only then completes them, so an acknowledged order survives a crash. It then hands them
+ * to the sink, which may block; appends queue up meanwhile and are refused once the queue is full.
+ * <p>
+ * Durable orders go to the sink; once every order of a segment is reported back through
+ * {@link #flushed(List)} the segment is deleted. The active segment is rotated as soon as the journal
+ * is idle and fully flushed, and deleted on close, so a restart replays only what the sink has not
+ * stored yet. Segments found on start are replayed to the sink, which must therefore tolerate orders
+ * it has already stored.
+ */
+@Slf4j
+public class OrderJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 32;
+    private static final int MAGIC = 0x4F524431;
+    private static final String SUFFIX = ".journal";
+    private static final long POLL_MILLIS = 100;
+
+    private final Path directory;
+    private final long segmentRecords;
+    private final int groupSize;
+    private final BlockingQueue<Pending> queue;
+    private final Consumer<List<JournaledOrder>> sink;
+    private final Map<Long, AtomicLong> unflushed = new ConcurrentHashMap<>();
+    private final Thread syncer;
+
+    private volatile boolean running = true;
+    private volatile boolean closed;
+    private FileChannel active;
+    private volatile long activeSegment;
+    private long activeRecords;
+
+    public OrderJournal(Path directory, long segmentBytes, int groupSize, int queueSize,
+                        Consumer<List<JournaledOrder>> sink) {
+        this.directory = directory;
+        this.segmentRecords = Math.max(1, segmentBytes / RECORD_SIZE);
+        this.groupSize = groupSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.sink = sink;
+
+        List<JournaledOrder> recovered = recover();
+        openSegment(activeSegment + 1);
+
+        syncer = new Thread(() -> run(recovered), "order-journal");
+        syncer.start();
+    }
+
+    /**
+     * @return completes once the order is on disk, or null when the journal is full or closed
+     */
+    public CompletableFuture<JournaledOrder> append(JournaledOrder order) {
+        if (!running) return null;
+
+        Pending pending = new Pending(order);
+        return queue.offer(pending) ? pending.durable : null;
+    }
+
+    public void flushed(List<JournaledOrder> orders) {
+        orders.stream().mapToLong(JournaledOrder::getSegment).distinct().forEach(segment -> {
+            AtomicLong left = unflushed.get(segment);
+            long count = orders.stream().filter(order -> order.getSegment() == segment).count();
+            if (left != null && left.addAndGet(-count) <= 0 && (segment != activeSegment || closed)) {
+                deleteSegment(segment);
+            }
+        });
+    }
+
+    public int backlog() {return queue.size();}
+
+    /**
+     * Stops accepting appends and waits for the queued ones to be written. The active segment is deleted
+     * once flushed, here or by a later {@link #flushed(List)} while the sink drains.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        syncer.join(TimeUnit.MINUTES.toMillis(1));
+        syncer.interrupt();
+        try {
+            active.close();
+        } catch (IOException e) {
+            log.warn("Closing journal segment {} failed", activeSegment, e);
+        }
+
+        closed = true;
+        if (activeRecords == 0) deleteFile(activeSegment);
+        else if (isFlushed(activeSegment)) deleteSegment(activeSegment);
+    }
+
+    private void run(List<JournaledOrder> recovered) {
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} journaled orders from {}", recovered.size(), directory);
+            sink.accept(recovered);
+        }
+
+        List<Pending> group = new ArrayList<>(groupSize);
+        while (running || !queue.isEmpty()) {
+            List<JournaledOrder> durable;
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    rotateIfFlushed();
+                    continue;
+                }
+
+                group.add(first);
+                queue.drainTo(group, groupSize - 1);
+                durable = write(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Writing {} orders to the journal failed", group.size(), e);
+                discardPartialWrite();
+                group.forEach(pending -> pending.durable.completeExceptionally(e));
+                continue;
+            } finally {
+                group.clear();
+            }
+            sink.accept(durable);
+        }
+    }
+
+    private List<JournaledOrder> write(List<Pending> group) throws IOException {
+        if (activeRecords > 0 && activeRecords + group.size() > segmentRecords) rotate();
+
+        List<JournaledOrder> durable = new ArrayList<>(group.size());
+        ByteBuffer buffer = ByteBuffer.allocate(group.size() * RECORD_SIZE);
+        for (Pending pending : group) {
+            encode(pending.order, buffer);
+            durable.add(pending.order.withSegment(activeSegment));
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) active.write(buffer);
+        active.force(false);
+
+        activeRecords += group.size();
+        unflushed.computeIfAbsent(activeSegment, segment -> new AtomicLong()).addAndGet(group.size());
+        for (int i = 0; i < group.size(); i++) group.get(i).durable.complete(durable.get(i));
+        return durable;
+    }
+
+    // A half-written group would end recovery early and hide the records appended after it.
+    private void discardPartialWrite() {
+        try {
+            active.truncate(activeRecords * RECORD_SIZE);
+        } catch (IOException e) {
+            log.error("Truncating journal segment {} failed, starting a new one", activeSegment, e);
+            try {
+                rotate();
+            } catch (IOException | UncheckedIOException rotateFailure) {
+                log.error("Rotating journal segment {} failed", activeSegment, rotateFailure);
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        long previous = activeSegment;
+        active.close();
+        openSegment(previous + 1);
+
+        if (isFlushed(previous)) deleteSegment(previous);
+    }
+
+    // Otherwise a quiet journal keeps its last segment, and a restart replays orders deleted since.
+    private void rotateIfFlushed() {
+        if (activeRecords == 0 || !isFlushed(activeSegment)) return;
+        try {
+            rotate();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Rotating journal segment {} failed", activeSegment, e);
+        }
+    }
+
+    private boolean isFlushed(long segment) {
+        AtomicLong left = unflushed.get(segment);
+        return left == null || left.get() <= 0;
+    }
+
+    private void openSegment(long segment) {
+        try {
+            Files.createDirectories(directory);
+            active = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            // Forcing the file only syncs its data; the new directory entry needs its own sync,
+            // or a crash can lose the segment with every group acknowledged from it.
+            try (FileChannel entries = FileChannel.open(directory, StandardOpenOption.READ)) {
+                entries.force(true);
+            }
+            activeSegment = segment;
+            activeRecords = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteSegment(long segment) {
+        if (unflushed.remove(segment) != null) deleteFile(segment);
+    }
+
+    private void deleteFile(long segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException e) {
+            log.warn("Deleting journal segment {} failed, it will be replayed again", segment, e);
+        }
+    }
+
+    // Reads every valid record; a torn or corrupt tail from a crash mid-write is cut off.
+    private List<JournaledOrder> recover() {
+        List<JournaledOrder> recovered = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return recovered;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Long> segments = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+            for (long segment : segments) {
+                List<JournaledOrder> orders = readSegment(segment);
+                activeSegment = segment;
+                if (orders.isEmpty()) {
+                    Files.delete(segmentPath(segment));
+                    continue;
+                }
+                recovered.addAll(orders);
+                unflushed.put(segment, new AtomicLong(orders.size()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return recovered;
+    }
+
+    private List<JournaledOrder> readSegment(long segment) throws IOException {
+        Path path = segmentPath(segment);
+        List<JournaledOrder> orders = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            long valid = 0;
+            while (channel.read(record.clear(), valid) == RECORD_SIZE) {
+                JournaledOrder order = decode(record.flip(), segment);
+                if (order == null) break;
+                orders.add(order);
+                valid += RECORD_SIZE;
+            }
+            if (valid < channel.size()) {
+                log.warn("Truncating journal segment {} from {} to {} bytes", segment, channel.size(), valid);
+                channel.truncate(valid);
+            }
+        }
+        return orders;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%019d%s", segment, SUFFIX));
+    }
+
+    static void encode(JournaledOrder order, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(MAGIC)
+                .putLong(order.getId())
+                .putLong(order.getMovieId())
+                .putInt(order.getParticipants())
+                .putInt((int) order.getOrderTime().toEpochDay());
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    static JournaledOrder decode(ByteBuffer buffer, long segment) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(RECORD_SIZE - 4) != checksum(buffer, 0)) return null;
+
+        return new JournaledOrder(segment, buffer.getLong(4), buffer.getLong(12), buffer.getInt(20),
+                LocalDate.ofEpochDay(buffer.getInt(24)));
+    }
+
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    @RequiredArgsConstructor
+    private static class Pending {
+        private final JournaledOrder order;
+        private final CompletableFuture<JournaledOrder> durable = new CompletableFuture<>();
+    }
+}
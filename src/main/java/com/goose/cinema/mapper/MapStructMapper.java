@@ -1,14 +1,30 @@
 package com.goose.cinema.mapper;
 
+import com.goose.cinema.dto.MovieDto;
 import com.goose.cinema.dto.MovieDtoAll;
 import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.persistance.Movie;
+import com.goose.cinema.persistance.MovieRecord;
 import com.goose.cinema.persistance.Order;
+import com.goose.cinema.persistance.OrderRecord;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface MapStructMapper {
     OrderDto orderToOrderDto(Order order);
 
+    MovieDto movieToMovieDto(Movie movie);
+
     MovieDtoAll movieToMovieDtoAll(Movie movie);
+
+    @Mapping(target = "orders", ignore = true)
+    MovieDtoAll movieToMovieDtoAllWithoutOrders(Movie movie);
+
+    OrderDto orderRecordToOrderDto(OrderRecord order);
+
+    MovieDto movieRecordToMovieDto(MovieRecord movie);
+
+    @Mapping(target = "orders", ignore = true)
+    MovieDtoAll movieRecordToMovieDtoAll(MovieRecord movie);
 }
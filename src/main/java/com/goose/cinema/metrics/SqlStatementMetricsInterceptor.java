@@ -0,0 +1,86 @@
+package com.goose.cinema.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Records how many SQL statements each request issued and how long they took, tagged like
+ * http.server.requests, and logs requests over the statement budget or with a slow statement
+ * together with the handler method and the SQL they ran.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatementMetricsInterceptor implements AsyncHandlerInterceptor {
+    public static final String METRIC = "cinema.sql.statements";
+    public static final String TIME_METRIC = "cinema.sql.time";
+    private static final int LOGGED_STATEMENTS = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final long maxStatements;
+    private final Duration slowStatement;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementRecorder.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        StatementRecorder.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StatementStats stats = StatementRecorder.stop();
+        String uri = Objects.toString(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE), "UNKNOWN");
+
+        DistributionSummary.builder(METRIC)
+                .description("SQL statements issued per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getCount());
+        Timer.builder(TIME_METRIC)
+                .description("Time spent in SQL per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+
+        if (stats.getCount() > maxStatements || stats.getSlowestMillis() >= slowStatement.toMillis()) {
+            log.warn("{} {} ({}) ran {} SQL statements in {} ms, budget {}; slowest {} ms: {}; most frequent: {}",
+                    request.getMethod(), uri, describe(handler), stats.getCount(), stats.getElapsedMillis(),
+                    maxStatements, stats.getSlowestMillis(), stats.getSlowestSql(), mostFrequent(stats));
+        }
+    }
+
+    private static String describe(Object handler) {
+        return handler instanceof HandlerMethod handlerMethod ? handlerMethod.getShortLogMessage() : String.valueOf(handler);
+    }
+
+    private static String mostFrequent(StatementStats stats) {
+        return stats.getExecutions().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(LOGGED_STATEMENTS)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining(" | ", "[", "]"));
+    }
+}
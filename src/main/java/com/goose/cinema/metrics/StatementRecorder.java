@@ -0,0 +1,67 @@
+package com.goose.cinema.metrics;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-bound recording of executed SQL. Recordings nest: a statement counts towards every
+ * recording open on the thread, so a test can wrap a whole request the interceptor also records.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class StatementRecorder {
+    private static final int MAX_DISTINCT_STATEMENTS = 100;
+    private static final ThreadLocal<Deque<Recording>> RECORDINGS = new ThreadLocal<>();
+
+    public static void start() {
+        Deque<Recording> recordings = RECORDINGS.get();
+        if (recordings == null) {
+            recordings = new ArrayDeque<>();
+            RECORDINGS.set(recordings);
+        }
+        recordings.push(new Recording());
+    }
+
+    public static StatementStats stop() {
+        Deque<Recording> recordings = RECORDINGS.get();
+        Recording recording = recordings == null ? null : recordings.poll();
+        if (recordings != null && recordings.isEmpty()) RECORDINGS.remove();
+
+        return recording == null ? new Recording().toStats() : recording.toStats();
+    }
+
+    static void record(String sql, long elapsedMillis) {
+        Deque<Recording> recordings = RECORDINGS.get();
+        if (recordings == null) return;
+
+        recordings.forEach(recording -> recording.add(sql, elapsedMillis));
+    }
+
+    private static class Recording {
+        private final Map<String, Long> executions = new LinkedHashMap<>();
+        private long count;
+        private long elapsedMillis;
+        private long slowestMillis = -1;
+        private String slowestSql;
+
+        void add(String sql, long millis) {
+            count++;
+            elapsedMillis += millis;
+            if (millis > slowestMillis) {
+                slowestMillis = millis;
+                slowestSql = sql;
+            }
+            if (executions.containsKey(sql) || executions.size() < MAX_DISTINCT_STATEMENTS) {
+                executions.merge(sql, 1L, Long::sum);
+            }
+        }
+
+        StatementStats toStats() {
+            return new StatementStats(count, elapsedMillis, Math.max(slowestMillis, 0), slowestSql, Map.copyOf(executions));
+        }
+    }
+}
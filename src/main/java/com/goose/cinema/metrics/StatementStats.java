@@ -0,0 +1,14 @@
+package com.goose.cinema.metrics;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class StatementStats {
+    long count;
+    long elapsedMillis;
+    long slowestMillis;
+    String slowestSql;
+    Map<String, Long> executions;
+}
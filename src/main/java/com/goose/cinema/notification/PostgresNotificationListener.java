@@ -0,0 +1,131 @@
+package com.goose.cinema.notification;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Postgres LISTEN on one connection outside the pool, shared by every channel the node follows.
+ * Subscribers run on the listening thread, so they only hand work off. The connection is re-opened
+ * with exponential backoff when lost; notifications sent meanwhile are gone, which subscribers
+ * hear about through {@link Subscriber#missed()}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostgresNotificationListener implements SmartLifecycle {
+    static final int POLL_TIMEOUT_MS = 1000;
+    private static final long MIN_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public interface Subscriber {
+        void notified(String payload);
+
+        /**
+         * After every wait for notifications, at most {@value #POLL_TIMEOUT_MS} ms apart while connected.
+         */
+        default void polled() {
+        }
+
+        /**
+         * Notifications may have been lost: the connection dropped, was re-opened, or listening stopped.
+         */
+        default void missed() {
+        }
+    }
+
+    // Channels are listened to from the next connection on, so subscribe before the context starts.
+    public void subscribe(String channel, Subscriber subscriber) {
+        subscribers.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "postgres-notifications");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        forEachSubscriber(Subscriber::missed);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        long backoff = MIN_BACKOFF_MS;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : subscribers.keySet()) statement.execute("LISTEN " + channel);
+                }
+                if (reconnect) forEachSubscriber(Subscriber::missed);
+                reconnect = true;
+                backoff = MIN_BACKOFF_MS;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) dispatch(notification);
+                    }
+                    forEachSubscriber(Subscriber::polled);
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Postgres notification listener disconnected, retrying in {} ms", backoff, e);
+                forEachSubscriber(Subscriber::missed);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void dispatch(PGNotification notification) {
+        for (Subscriber subscriber : subscribers.getOrDefault(notification.getName(), List.of())) {
+            try {
+                subscriber.notified(notification.getParameter());
+            } catch (RuntimeException e) {
+                log.warn("Handling notification on {} failed", notification.getName(), e);
+            }
+        }
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        subscribers.values().stream().flatMap(List::stream).distinct().forEach(action);
+    }
+}
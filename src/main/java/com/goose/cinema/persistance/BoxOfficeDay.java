@@ -0,0 +1,49 @@
+package com.goose.cinema.persistance;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Maintained by the orders_box_office_* triggers; never written from the application.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@IdClass(BoxOfficeDay.Key.class)
+@Table(name = "box_office_daily")
+public class BoxOfficeDay {
+
+    @Id
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+
+    @Id
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "orders", nullable = false)
+    private Long orders;
+
+    @Column(name = "tickets", nullable = false)
+    private Long tickets;
+
+    @Column(name = "revenue", nullable = false)
+    private Long revenue;
+
+    @Getter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long movieId;
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,32 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+// Maintained by the orders_box_office_* triggers; never written from the application.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "box_office_totals")
+public class BoxOfficeTotal {
+
+    @Id
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+
+    @Column(name = "orders", nullable = false)
+    private Long orders;
+
+    @Column(name = "tickets", nullable = false)
+    private Long tickets;
+
+    @Column(name = "revenue", nullable = false)
+    private Long revenue;
+}
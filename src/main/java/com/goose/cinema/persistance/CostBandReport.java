@@ -0,0 +1,38 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+// Materialized view, refreshed by ReportServiceI.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "report_cost_bands")
+public class CostBandReport {
+
+    @Id
+    @Column(name = "min_cost")
+    private Integer minCost;
+
+    @Column(name = "max_cost")
+    private Integer maxCost;
+
+    @Column(name = "movies")
+    private Long movies;
+
+    @Column(name = "orders")
+    private Long orders;
+
+    @Column(name = "tickets")
+    private Long tickets;
+
+    @Column(name = "revenue")
+    private Long revenue;
+}
@@ -0,0 +1,30 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+// Written only through the native statements in IdempotencyKeyRepository.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "key", nullable = false)
+    private String key;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -19,7 +19,8 @@ import java.util.Objects;
 public class Movie {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movies_id_seq")
+    @SequenceGenerator(name = "movies_id_seq", sequenceName = "movies_id_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, unique = true)
     private Long id;
 
@@ -32,6 +33,10 @@ public class Movie {
     @Column(name = "cost", nullable = false)
     private Integer cost;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "movieId", cascade = CascadeType.ALL, orphanRemoval = true)
     @ToString.Exclude
     private List<Order> orders;
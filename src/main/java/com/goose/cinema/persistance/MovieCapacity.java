@@ -0,0 +1,29 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+// available is maintained by the orders_capacity_* triggers; seats are set through CapacityRepository.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "movie_capacity")
+public class MovieCapacity {
+
+    @Id
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+
+    @Column(name = "seats", nullable = false)
+    private Integer seats;
+
+    @Column(name = "available", nullable = false)
+    private Integer available;
+}
@@ -0,0 +1,30 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+// R2DBC mapping of the movies table for the reactive profile; Movie stays the JPA entity.
+@Getter
+@Setter
+@NoArgsConstructor
+@Table("movies")
+public class MovieRecord {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private LocalDate releaseDate;
+
+    private Integer cost;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,30 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+// R2DBC mapping of the orders table for the reactive profile; Order stays the JPA entity.
+@Getter
+@Setter
+@NoArgsConstructor
+@Table("orders")
+public class OrderRecord {
+
+    @Id
+    private Long id;
+
+    private Long movieId;
+
+    private LocalDate orderTime;
+
+    private Integer participants;
+
+    @Version
+    private Long version;
+}
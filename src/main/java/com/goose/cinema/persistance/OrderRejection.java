@@ -0,0 +1,36 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+// Written only by JournalWriter when the database refuses a journaled order.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "order_rejections")
+public class OrderRejection {
+
+    @Id
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "movie_id", nullable = false)
+    private Long movieId;
+
+    @Column(name = "sql_state")
+    private String sqlState;
+
+    @Column(name = "constraint_name")
+    private String constraintName;
+
+    @Column(name = "rejected_at", nullable = false)
+    private Instant rejectedAt;
+}
@@ -0,0 +1,45 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+// Written by the movies and orders triggers, numbered by outbox_events_sequence().
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "position")
+    private Long position;
+
+    @Column(name = "aggregate")
+    private String aggregate;
+
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    @Column(name = "type")
+    private String type;
+
+    @Column(name = "payload", columnDefinition = "jsonb")
+    private String payload;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "sequenced_at")
+    private Instant sequencedAt;
+}
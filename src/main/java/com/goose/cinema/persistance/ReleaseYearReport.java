@@ -0,0 +1,35 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+// Materialized view, refreshed by ReportServiceI.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "report_release_years")
+public class ReleaseYearReport {
+
+    @Id
+    @Column(name = "release_year")
+    private Integer releaseYear;
+
+    @Column(name = "movies")
+    private Long movies;
+
+    @Column(name = "orders")
+    private Long orders;
+
+    @Column(name = "tickets")
+    private Long tickets;
+
+    @Column(name = "revenue")
+    private Long revenue;
+}
@@ -0,0 +1,33 @@
+package com.goose.cinema.persistance;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDate;
+
+// Materialized view, refreshed by ReportServiceI.
+@Getter
+@NoArgsConstructor
+@Entity
+@Immutable
+@Table(name = "report_weekly")
+public class WeeklyReport {
+
+    @Id
+    @Column(name = "week")
+    private LocalDate week;
+
+    @Column(name = "orders")
+    private Long orders;
+
+    @Column(name = "tickets")
+    private Long tickets;
+
+    @Column(name = "revenue")
+    private Long revenue;
+}
@@ -0,0 +1,37 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.dto.BoxOfficeDayDto;
+import com.goose.cinema.dto.BoxOfficeDto;
+import com.goose.cinema.persistance.BoxOfficeTotal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// Revenue is recorded at the ticket price each order was placed at, so a later price change leaves it alone.
+@org.springframework.stereotype.Repository
+public interface BoxOfficeRepository extends Repository<BoxOfficeTotal, Long> {
+
+    @Query("select new com.goose.cinema.dto.BoxOfficeDto(t.movieId, t.orders, t.tickets, t.revenue) "
+            + "from BoxOfficeTotal t where t.movieId = :id")
+    Optional<BoxOfficeDto> findTotalsByMovieId(@Param("id") Long id);
+
+    @Query("select new com.goose.cinema.dto.BoxOfficeDayDto(d.day, d.orders, d.tickets, d.revenue) "
+            + "from BoxOfficeDay d where d.movieId = :id and d.day between :from and :to and d.orders > 0 order by d.day")
+    List<BoxOfficeDayDto> findDailyByMovieId(@Param("id") Long id, @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+
+    @Query("select new com.goose.cinema.dto.BoxOfficeDto(t.movieId, t.orders, t.tickets, t.revenue) "
+            + "from BoxOfficeTotal t where t.orders > 0 "
+            + "order by t.tickets desc, t.movieId")
+    List<BoxOfficeDto> findTopByTickets(Pageable pageable);
+
+    @Query("select new com.goose.cinema.dto.BoxOfficeDto(t.movieId, t.orders, t.tickets, t.revenue) "
+            + "from BoxOfficeTotal t where t.orders > 0 "
+            + "order by t.revenue desc, t.movieId")
+    List<BoxOfficeDto> findTopByRevenue(Pageable pageable);
+}
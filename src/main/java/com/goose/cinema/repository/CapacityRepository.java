@@ -0,0 +1,39 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.dto.CapacityDto;
+import com.goose.cinema.persistance.MovieCapacity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+@org.springframework.stereotype.Repository
+public interface CapacityRepository extends Repository<MovieCapacity, Long> {
+
+    @Query("select new com.goose.cinema.dto.CapacityDto(c.movieId, c.seats, c.available) "
+            + "from MovieCapacity c where c.movieId = :id")
+    Optional<CapacityDto> findByMovieId(@Param("id") Long id);
+
+    // Waits out orders in flight for the movie, inserts hold a key share on its row, and holds off new ones.
+    @Query(value = "SELECT id FROM movies WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockMovie(@Param("id") Long id);
+
+    // Waits out order updates in flight, which hold the totals row until they commit.
+    @Query(value = "SELECT movie_id FROM box_office_totals WHERE movie_id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockTotals(@Param("id") Long id);
+
+    // A new limit starts from the tickets already sold; changing it keeps the seats taken so far.
+    @Modifying
+    @Query(value = "INSERT INTO movie_capacity AS c (movie_id, seats, available) "
+            + "SELECT m.id, :seats, :seats - coalesce(t.tickets, 0) FROM movies m "
+            + "LEFT JOIN box_office_totals t ON t.movie_id = m.id WHERE m.id = :id "
+            + "ON CONFLICT (movie_id) DO UPDATE SET available = c.available + excluded.seats - c.seats, "
+            + "seats = excluded.seats", nativeQuery = true)
+    int upsert(@Param("id") Long id, @Param("seats") Integer seats);
+
+    @Modifying
+    @Query(value = "DELETE FROM movie_capacity WHERE movie_id = :id", nativeQuery = true)
+    int deleteByMovieId(@Param("id") Long id);
+}
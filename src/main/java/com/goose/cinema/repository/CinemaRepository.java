@@ -0,0 +1,27 @@
+package com.goose.cinema.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.stream.Stream;
+
+@NoRepositoryBean
+public interface CinemaRepository<T, ID> extends JpaRepository<T, ID>, JpaSpecificationExecutor<T> {
+
+    /**
+     * Reads one page without issuing a count query: fetches {@code size + 1} rows
+     * and reports whether there is a next page.
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+
+    /**
+     * Walks the matching rows with a forward-only cursor fetching {@code fetchSize} rows at a time.
+     * Must be consumed and closed inside a transaction; entities stay managed until detached.
+     */
+    Stream<T> streamAll(Specification<T> spec, Sort sort, int fetchSize);
+}
@@ -0,0 +1,30 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.persistance.IdempotencyKey;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@org.springframework.stereotype.Repository
+public interface IdempotencyKeyRepository extends Repository<IdempotencyKey, String> {
+
+    // 1 when this transaction owns the key, 0 once another committed it first.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key) VALUES (:key) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key);
+
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET order_id = :orderId WHERE key = :key", nativeQuery = true)
+    int complete(@Param("key") String key, @Param("orderId") Long orderId);
+
+    @Query("select k.orderId from IdempotencyKey k where k.key = :key")
+    Optional<Long> findOrderIdByKey(@Param("key") String key);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE created_at < :before", nativeQuery = true)
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
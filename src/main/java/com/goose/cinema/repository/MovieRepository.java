@@ -1,11 +1,43 @@
 package com.goose.cinema.repository;
 
+import com.goose.cinema.dto.MovieVersionDto;
 import com.goose.cinema.persistance.Movie;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long>, JpaSpecificationExecutor<Movie> {
-    boolean existsByName(String name);
+public interface MovieRepository extends CinemaRepository<Movie, Long> {
+    @Modifying
+    @Query("delete from Movie m where m.id = :id")
+    int deleteMovieById(@Param("id") Long id);
+
+    // Once PgJDBC server-prepares "name LIKE ?", Postgres may switch to a generic plan that skips the
+    // trigram index; name searches call this so the rest of their transaction plans with the actual pattern.
+    @Query(value = "SELECT set_config('plan_cache_mode', 'force_custom_plan', true)", nativeQuery = true)
+    String forceCustomPlans();
+
+    @Query("select m.id from Movie m where m.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Orders are folded into a digest of their ordered (id, version) pairs, matching MovieVersionDto.of.
+    @Query(value = "SELECT m.version AS \"version\", md5(COALESCE(string_agg(o.id || ':' || o.version, ',' "
+            + "ORDER BY o.id), '')) AS \"ordersDigest\" FROM movies m LEFT JOIN orders o ON o.movie_id = m.id "
+            + "WHERE m.id = :id GROUP BY m.id, m.version", nativeQuery = true)
+    Optional<VersionView> findVersionViewById(@Param("id") Long id);
+
+    default Optional<MovieVersionDto> findVersionById(Long id) {
+        return findVersionViewById(id).map(view -> new MovieVersionDto(view.getVersion(), view.getOrdersDigest()));
+    }
+
+    interface VersionView {
+        Long getVersion();
+
+        String getOrdersDigest();
+    }
 }
\ No newline at end of file
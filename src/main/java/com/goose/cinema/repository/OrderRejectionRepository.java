@@ -0,0 +1,12 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.persistance.OrderRejection;
+import org.springframework.data.repository.Repository;
+
+import java.util.Optional;
+
+@org.springframework.stereotype.Repository
+public interface OrderRejectionRepository extends Repository<OrderRejection, Long> {
+
+    Optional<OrderRejection> findById(Long orderId);
+}
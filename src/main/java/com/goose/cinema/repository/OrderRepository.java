@@ -1,10 +1,22 @@
 package com.goose.cinema.repository;
 
 import com.goose.cinema.persistance.Order;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends CinemaRepository<Order, Long> {
+    List<Order> findAllByMovieIdInOrderById(Collection<Long> movieIds);
+
+    @Query("select o.version from Order o where o.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Not @Modifying: the statement returns the deleted row's movie, so it runs as a query.
+    @Query(value = "DELETE FROM orders WHERE id = :id RETURNING movie_id", nativeQuery = true)
+    Optional<Long> deleteReturningMovieId(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.dto.ChangeEventDto;
+import com.goose.cinema.persistance.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+@org.springframework.stereotype.Repository
+public interface OutboxEventRepository extends Repository<OutboxEvent, Long> {
+
+    // Positions committed events, 0 when there were none or another transaction is already at it.
+    @Query(value = "SELECT outbox_events_sequence(:batch)", nativeQuery = true)
+    int sequence(@Param("batch") int batch);
+
+    @Query("select new com.goose.cinema.dto.ChangeEventDto(e.position, e.aggregate, e.aggregateId, e.type, "
+            + "e.payload, e.createdAt) from OutboxEvent e where e.position > :after order by e.position")
+    List<ChangeEventDto> findAfter(@Param("after") long after, Pageable pageable);
+
+    // Drops a prefix of the feed and always keeps the last event, which the next position counts on.
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE position <= "
+            + "(SELECT max(position) FROM outbox_events WHERE sequenced_at < :before) "
+            + "AND position < (SELECT max(position) FROM outbox_events)", nativeQuery = true)
+    int deleteSequencedBefore(@Param("before") Instant before);
+}
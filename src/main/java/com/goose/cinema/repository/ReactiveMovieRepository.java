@@ -0,0 +1,16 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.persistance.MovieRecord;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveMovieRepository extends ReactiveCrudRepository<MovieRecord, Long> {
+
+    @Modifying
+    @Query("DELETE FROM movies WHERE id = :id")
+    Mono<Integer> deleteMovieById(Long id);
+}
@@ -0,0 +1,16 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.persistance.OrderRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveOrderRepository extends ReactiveCrudRepository<OrderRecord, Long> {
+    Flux<OrderRecord> findAllByMovieIdOrderById(Long movieId);
+
+    @Query("DELETE FROM orders WHERE id = :id RETURNING movie_id")
+    Mono<Long> deleteReturningMovieId(Long id);
+}
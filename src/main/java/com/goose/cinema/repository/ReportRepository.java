@@ -0,0 +1,45 @@
+package com.goose.cinema.repository;
+
+import com.goose.cinema.dto.CostBandReportDto;
+import com.goose.cinema.dto.ReleaseYearReportDto;
+import com.goose.cinema.dto.WeeklyReportDto;
+import com.goose.cinema.persistance.WeeklyReport;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Reads only the report_* materialized views, never orders or movies.
+@org.springframework.stereotype.Repository
+public interface ReportRepository extends Repository<WeeklyReport, LocalDate> {
+
+    @Query("select new com.goose.cinema.dto.WeeklyReportDto(w.week, w.orders, w.tickets, w.revenue) "
+            + "from WeeklyReport w where w.week between :from and :to order by w.week")
+    List<WeeklyReportDto> findWeekly(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.goose.cinema.dto.ReleaseYearReportDto(r.releaseYear, r.movies, r.orders, r.tickets, "
+            + "r.revenue) from ReleaseYearReport r order by r.releaseYear")
+    List<ReleaseYearReportDto> findReleaseYears();
+
+    @Query("select new com.goose.cinema.dto.CostBandReportDto(c.minCost, c.maxCost, c.movies, c.orders, c.tickets, "
+            + "c.revenue) from CostBandReport c order by c.minCost")
+    List<CostBandReportDto> findCostBands();
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('report_refresh'))", nativeQuery = true)
+    boolean tryLockRefresh();
+
+    @Modifying
+    @Query(value = "REFRESH MATERIALIZED VIEW CONCURRENTLY report_weekly", nativeQuery = true)
+    void refreshWeekly();
+
+    @Modifying
+    @Query(value = "REFRESH MATERIALIZED VIEW CONCURRENTLY report_release_years", nativeQuery = true)
+    void refreshReleaseYears();
+
+    @Modifying
+    @Query(value = "REFRESH MATERIALIZED VIEW CONCURRENTLY report_cost_bands", nativeQuery = true)
+    void refreshCostBands();
+}
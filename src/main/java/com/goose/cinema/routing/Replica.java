@@ -0,0 +1,21 @@
+package com.goose.cinema.routing;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.sql.DataSource;
+
+@Getter
+@RequiredArgsConstructor
+public class Replica {
+    private final String name;
+    private final DataSource dataSource;
+
+    private volatile boolean healthy;
+    private volatile double lagSeconds = Double.NaN;
+
+    void update(boolean healthy, double lagSeconds) {
+        this.healthy = healthy;
+        this.lagSeconds = lagSeconds;
+    }
+}
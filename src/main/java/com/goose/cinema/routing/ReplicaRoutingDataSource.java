@@ -0,0 +1,50 @@
+package com.goose.cinema.routing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Sends connections of read-only transactions to a replica and everything else to the primary.
+ * The read-only flag is only known once the transaction has started, so this has to sit behind a
+ * LazyConnectionDataSourceProxy that defers the lookup to the first statement.
+ */
+@RequiredArgsConstructor
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    private static final Object REPLICA_READ = new Object();
+
+    private final ReplicaSelector replicaSelector;
+
+    /**
+     * Whether the current transaction has read from a replica. A lagging replica can return rows a write
+     * has already evicted from the caches, so such reads must not fill them.
+     */
+    public static boolean isReplicaRead() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return PRIMARY;
+
+        Optional<Replica> replica = replicaSelector.next();
+        replica.ifPresent(selected -> markReplicaRead());
+        return replica.map(Replica::getName).orElse(PRIMARY);
+    }
+
+    private static void markReplicaRead() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isReplicaRead()) return;
+
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+        });
+    }
+}
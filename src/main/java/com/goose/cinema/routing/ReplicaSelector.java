@@ -0,0 +1,101 @@
+package com.goose.cinema.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Round-robin over the replicas that answered the last health check within the lag threshold;
+ * empty when none did, so reads fall back to the primary.
+ * <p>
+ * Lag is the age of the last replayed transaction, and zero once everything received is replayed,
+ * so a replica of an idle primary does not look stale.
+ */
+@Slf4j
+public class ReplicaSelector implements MeterBinder {
+    public static final String LAG_METRIC = "cinema.datasource.replica.lag";
+    static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Getter
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final int checkTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSelector(List<Replica> replicas, Duration maxLag, Duration checkTimeout) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.checkTimeoutSeconds = (int) Math.max(1, checkTimeout.toSeconds());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        replicas.forEach(replica -> Gauge.builder(LAG_METRIC, replica, Replica::getLagSeconds)
+                .description("Replication lag seen by the last health check")
+                .baseUnit("seconds")
+                .tag("replica", replica.getName())
+                .register(meterRegistry));
+    }
+
+    public Optional<Replica> next() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isHealthy()) return Optional.of(replica);
+        }
+        return Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${cinema.datasource.replica-check-interval}",
+            initialDelayString = "${cinema.datasource.replica-check-interval}")
+    public void check() {
+        replicas.forEach(this::check);
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        replicas.forEach(replica -> status.put(replica.getName(),
+                Map.of("healthy", replica.isHealthy(), "lagSeconds", replica.getLagSeconds())));
+        return status;
+    }
+
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable closeable) closeable.close();
+        }
+    }
+
+    private void check(Replica replica) {
+        boolean wasHealthy = replica.isHealthy();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+            jdbcTemplate.setQueryTimeout(checkTimeoutSeconds);
+            Double lag = jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            double lagSeconds = lag == null ? 0 : lag;
+            replica.update(lagSeconds <= maxLag.toMillis() / 1000.0, lagSeconds);
+
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Replica {} is {} with {} s lag", replica.getName(),
+                        replica.isHealthy() ? "back in rotation" : "out of rotation", lagSeconds);
+            }
+        } catch (RuntimeException e) {
+            replica.update(false, Double.NaN);
+            if (wasHealthy) log.warn("Replica {} is out of rotation, health check failed", replica.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.CapacityDto;
+
+public interface CapacityService {
+
+    CapacityDto findByMovieId(Long movieId);
+
+    CapacityDto update(Long movieId, Integer seats);
+
+    void delete(Long movieId);
+}
@@ -0,0 +1,58 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.CapacityDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.repository.CapacityRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+@Service
+@Transactional
+@Timed(value = "cinema.service", histogram = true)
+@RequiredArgsConstructor
+public class CapacityServiceI implements CapacityService {
+    private final CapacityRepository capacityRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CapacityDto findByMovieId(Long movieId) {
+        return capacityRepository.findByMovieId(movieId)
+                .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Capacity not found"));
+    }
+
+    /**
+     * A new limit counts the tickets already sold, so orders still in flight are waited for first; the
+     * ones that follow queue on the same locks until the limit is committed and then take their seats from it.
+     */
+    @Override
+    public CapacityDto update(Long movieId, Integer seats) {
+        if (Objects.isNull(seats) || seats < 0) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Seats should not be negative");
+        }
+        if (capacityRepository.lockMovie(movieId).isEmpty()) {
+            throw new CinemaException(ErrorType.NOT_FOUND, "Movie doesn't exists");
+        }
+        capacityRepository.lockTotals(movieId);
+
+        try {
+            capacityRepository.upsert(movieId, seats);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolations.translate(e);
+        }
+
+        return findByMovieId(movieId);
+    }
+
+    @Override
+    public void delete(Long movieId) {
+        if (capacityRepository.deleteByMovieId(movieId) == 0) {
+            throw new CinemaException(ErrorType.NOT_FOUND, "Capacity not found");
+        }
+    }
+}
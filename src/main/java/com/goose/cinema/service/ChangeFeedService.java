@@ -0,0 +1,14 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.ChangeFeedDto;
+
+import java.time.Instant;
+
+public interface ChangeFeedService {
+
+    ChangeFeedDto read(long after, int limit);
+
+    int purge(Instant before);
+
+    int purgeExpired();
+}
@@ -0,0 +1,62 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.ChangeEventDto;
+import com.goose.cinema.dto.ChangeFeedDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.repository.OutboxEventRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@Transactional
+@Timed(value = "cinema.service", histogram = true)
+@RequiredArgsConstructor
+public class ChangeFeedServiceI implements ChangeFeedService {
+    public static final int MAX_LIMIT = 1000;
+    private static final int SEQUENCE_BATCH = 10_000;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    // Consumers further behind than this get 410 and have to resync.
+    @Value("${cinema.changes.retention}")
+    private Duration retention;
+
+    /**
+     * Events after the given position. Positions have no gaps, so a first event past after + 1 means
+     * the consumer fell behind the retention window and has missed events.
+     */
+    @Override
+    public ChangeFeedDto read(long after, int limit) {
+        if (after < 0) throw new CinemaException(ErrorType.BAD_REQUEST, "after should not be negative");
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "limit should be between 1 and " + MAX_LIMIT);
+        }
+
+        outboxEventRepository.sequence(SEQUENCE_BATCH);
+        List<ChangeEventDto> events = outboxEventRepository.findAfter(after, PageRequest.ofSize(limit));
+        if (events.isEmpty()) return new ChangeFeedDto(events, after);
+        if (events.get(0).getPosition() > after + 1) {
+            throw new CinemaException(ErrorType.GONE, "Events after position " + after + " are no longer kept");
+        }
+
+        return new ChangeFeedDto(events, events.get(events.size() - 1).getPosition());
+    }
+
+    @Override
+    public int purge(Instant before) {return outboxEventRepository.deleteSequencedBefore(before);}
+
+    @Override
+    @Scheduled(fixedDelayString = "${cinema.changes.purge-interval}",
+            initialDelayString = "${cinema.changes.purge-interval}")
+    public int purgeExpired() {return purge(Instant.now().minus(retention));}
+}
@@ -0,0 +1,49 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import io.r2dbc.postgresql.api.PostgresqlException;
+import io.r2dbc.spi.R2dbcException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Objects;
+
+/**
+ * Turns violations of the database constraints into the errors the services used to
+ * report from their own existence checks, so writes need no extra round trip to validate.
+ */
+final class ConstraintViolations {
+    static final String MOVIE_NAME = "movies_name_key";
+    static final String ORDER_MOVIE = "orders_movie_id_fkey";
+    static final String AVAILABLE_SEATS = "movie_capacity_available_check";
+
+    private ConstraintViolations() {
+    }
+
+    static CinemaException translate(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation) {
+            return translate(violation.getSQLState(), violation.getConstraintName(), "Not enough information");
+        }
+        if (e.getCause() instanceof R2dbcException r2dbcException) {
+            String constraint = r2dbcException instanceof PostgresqlException postgresqlException
+                    ? postgresqlException.getErrorDetails().getConstraintName().orElse(null) : null;
+            return translate(r2dbcException.getSqlState(), constraint, "Not enough information");
+        }
+        return new CinemaException(ErrorType.INTERNAL_ERROR, "Not enough information");
+    }
+
+    static CinemaException translate(String sqlState, String constraint, String otherwise) {
+        return switch (Objects.requireNonNullElse(sqlState, "")) {
+            case "23505" -> MOVIE_NAME.equals(constraint)
+                    ? new CinemaException(ErrorType.ALREADY_OCCUPIED, "This name is already exist")
+                    : new CinemaException(ErrorType.ALREADY_OCCUPIED, "This id is already exist");
+            case "23503" -> new CinemaException(ErrorType.NOT_FOUND, "Movie doesn't exists");
+            case "23514" -> AVAILABLE_SEATS.equals(constraint)
+                    ? new CinemaException(ErrorType.CONFLICT, "Not enough seats left")
+                    : new CinemaException(ErrorType.INTERNAL_ERROR, "Not enough information");
+            case "23502" -> new CinemaException(ErrorType.INTERNAL_ERROR, "Not enough information");
+            default -> new CinemaException(ErrorType.INTERNAL_ERROR, otherwise);
+        };
+    }
+}
@@ -1,20 +1,35 @@
 package com.goose.cinema.service;
 
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.MovieVersionDto;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.dto.MovieDto;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 public interface MovieService {
 
     MovieDtoAll findById(Long id);
 
-    Page<MovieDtoAll> searchAll(MovieDto movieDto, Pageable pageable);
+    MovieDto findSummaryById(Long id);
+
+    MovieVersionDto findVersionById(Long id);
+
+    CursorPage<OrderDto> findOrders(Long id, String after, Integer size);
+
+    Slice<MovieDtoAll> searchAll(MovieDto movieDto, NameMatch match, Pageable pageable,
+                                 boolean withTotal, MovieInclude include);
+
+    CursorPage<MovieDtoAll> searchAfter(MovieDto movieDto, NameMatch match, String after,
+                                        Integer size, MovieInclude include);
 
     MovieDtoAll create(MovieDto movieDto);
 
-    MovieDtoAll update(MovieDto movieDto);
+    MovieDtoAll update(MovieDto movieDto, Long expectedVersion);
 
     void delete(Long id);
 }
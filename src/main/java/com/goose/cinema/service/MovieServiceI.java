@@ -1,34 +1,61 @@
 package com.goose.cinema.service;
 
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.MovieDto;
 import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.MovieVersionDto;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.exception.CinemaException;
 import com.goose.cinema.exception.ErrorType;
 import com.goose.cinema.mapper.MapStructMapper;
 import com.goose.cinema.persistance.Movie;
 import com.goose.cinema.persistance.Order;
 import com.goose.cinema.repository.MovieRepository;
+import com.goose.cinema.repository.OrderRepository;
+import com.goose.cinema.routing.ReplicaRoutingDataSource;
+import com.goose.cinema.specification.KeysetCursor;
 import com.goose.cinema.specification.MovieSpecification;
 import com.goose.cinema.specification.OrderSpecification;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "cinema.service", histogram = true)
 @RequiredArgsConstructor
 public class MovieServiceI implements MovieService {
 
     private final MovieRepository moviesRepository;
+    private final OrderRepository ordersRepository;
     private final MapStructMapper mapper;
+    private final CacheManager cacheManager;
 
+    // Not read-only, so a miss is filled from the primary: a lagging replica could cache a movie just evicted.
     @Override
-    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MOVIES, key = "#id")
     public MovieDtoAll findById(Long id) {
         Movie byId = moviesRepository.findById(id)
                 .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Movie not found"));
@@ -37,15 +64,70 @@ public class MovieServiceI implements MovieService {
     }
 
     @Override
-    public Page<MovieDtoAll> searchAll(MovieDto movieDto, Pageable pageable) {
-        Page<Movie> ordersPage = moviesRepository.findAll(MovieSpecification.movieSpecification(movieDto), pageable);
+    @Transactional(readOnly = true)
+    public MovieDto findSummaryById(Long id) {
+        Movie byId = moviesRepository.findById(id)
+                .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Movie not found"));
+
+        return mapper.movieToMovieDto(byId);
+    }
+
+    // A cached full view already carries every version, so a conditional GET costs no query.
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MovieVersionDto findVersionById(Long id) {
+        MovieDtoAll cached = cacheManager.getCache(CacheConfig.MOVIES).get(id, MovieDtoAll.class);
+        if (Objects.nonNull(cached)) return MovieVersionDto.of(cached);
+
+        return moviesRepository.findVersionById(id)
+                .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Movie not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MovieDtoAll> searchAll(MovieDto movieDto, NameMatch match, Pageable pageable,
+                                        boolean withTotal, MovieInclude include) {
+        if (Objects.nonNull(movieDto) && Objects.nonNull(movieDto.getName())) moviesRepository.forceCustomPlans();
+        Specification<Movie> specification = MovieSpecification.movieSpecification(movieDto, match);
+        Slice<Movie> movies = moviesRepository.findSlice(specification, pageable);
+        Slice<MovieDtoAll> moviesSlice = new SliceImpl<>(toMovieDtos(movies.getContent(), include), pageable, movies.hasNext());
+
+        if (!withTotal) return moviesSlice;
+
+        return PageableExecutionUtils.getPage(moviesSlice.getContent(), pageable,
+                () -> countAll(movieDto, match, specification));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<MovieDtoAll> searchAfter(MovieDto movieDto, NameMatch match, String after,
+                                               Integer size, MovieInclude include) {
+        if (Objects.nonNull(movieDto) && Objects.nonNull(movieDto.getName())) moviesRepository.forceCustomPlans();
+        Specification<Movie> specification = MovieSpecification.movieSpecification(movieDto, match)
+                .and(MovieSpecification.afterId(KeysetCursor.decode(after)));
+        Slice<Movie> moviesSlice = moviesRepository.findSlice(specification, KeysetCursor.firstPage(size));
+
+        return new CursorPage<>(toMovieDtos(moviesSlice.getContent(), include),
+                KeysetCursor.next(moviesSlice, Movie::getId));
+    }
 
-        return new PageImpl<>(ordersPage.get().map(mapper::movieToMovieDtoAll).toList());
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> findOrders(Long id, String after, Integer size) {
+        Specification<Order> specification = Specification.where(OrderSpecification.equalMovieid(id))
+                .and(OrderSpecification.afterId(KeysetCursor.decode(after)));
+        Slice<Order> ordersSlice = ordersRepository.findSlice(specification, KeysetCursor.firstPage(size));
+
+        if (!ordersSlice.hasContent() && !moviesRepository.existsById(id)) {
+            throw new CinemaException(ErrorType.NOT_FOUND, "Movie not found");
+        }
+
+        return new CursorPage<>(ordersSlice.map(mapper::orderToOrderDto).getContent(),
+                KeysetCursor.next(ordersSlice, Order::getId));
     }
 
     @Override
     public MovieDtoAll create(MovieDto movieDto) {
-        checkForDuplicate(movieDto.getName());
         if(Objects.isNull(movieDto.getName())
                 || Objects.isNull(movieDto.getReleaseDate())
                 || Objects.isNull(movieDto.getCost())) {
@@ -57,20 +139,19 @@ public class MovieServiceI implements MovieService {
         newMovie.setName(movieDto.getName());
         newMovie.setCost(movieDto.getCost());
         newMovie.setReleaseDate(movieDto.getReleaseDate());
-        Movie save = moviesRepository.save(newMovie);
+        Movie save = saveAndFlush(newMovie);
 
         return mapper.movieToMovieDtoAll(save);
     }
 
     @Override
-    public MovieDtoAll update(MovieDto movieDto) {
+    @CacheEvict(cacheNames = CacheConfig.MOVIES, key = "#movieDto.id")
+    public MovieDtoAll update(MovieDto movieDto, Long expectedVersion) {
         Movie updateMovie = moviesRepository.findById(movieDto.getId())
                 .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Movie not found"));
+        checkVersion(updateMovie.getVersion(), expectedVersion);
 
-        if (Objects.nonNull(movieDto.getName()) && !movieDto.getName().equals(updateMovie.getName())) {
-            checkForDuplicate(movieDto.getName());
-            updateMovie.setName(movieDto.getName());
-        }
+        if (Objects.nonNull(movieDto.getName())) updateMovie.setName(movieDto.getName());
 
         if (Objects.nonNull(movieDto.getCost())) {
             checkCost(movieDto.getCost());
@@ -79,25 +160,56 @@ public class MovieServiceI implements MovieService {
 
         if (Objects.nonNull(movieDto.getReleaseDate())) updateMovie.setReleaseDate(movieDto.getReleaseDate());
 
+        saveAndFlush(updateMovie);
         return mapper.movieToMovieDtoAll(updateMovie);
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.MOVIES, key = "#id")
     public void delete(Long id) {
-        if(!moviesRepository.existsById(id)) {
+        if (moviesRepository.deleteMovieById(id) == 0) {
             throw new CinemaException(ErrorType.NOT_FOUND, "Movie doesn't exists");
         }
-        moviesRepository.deleteById(id);
+    }
+
+    private List<MovieDtoAll> toMovieDtos(List<Movie> movies, MovieInclude include) {
+        List<MovieDtoAll> movieDtos = movies.stream().map(mapper::movieToMovieDtoAllWithoutOrders).toList();
+        if (include == MovieInclude.NONE || movies.isEmpty()) return movieDtos;
+
+        List<Long> movieIds = movies.stream().map(Movie::getId).toList();
+        Map<Long, List<OrderDto>> ordersByMovie = ordersRepository.findAllByMovieIdInOrderById(movieIds).stream()
+                .collect(Collectors.groupingBy(Order::getMovieId,
+                        Collectors.mapping(mapper::orderToOrderDto, Collectors.toList())));
+
+        movieDtos.forEach(movieDto -> movieDto.setOrders(ordersByMovie.getOrDefault(movieDto.getId(), new ArrayList<>())));
+        return movieDtos;
+    }
 
+    private long countAll(MovieDto movieDto, NameMatch match, Specification<Movie> specification) {
+        SimpleKey key = new SimpleKey(Objects.requireNonNullElseGet(movieDto, MovieDto::new), match);
+        Cache counts = cacheManager.getCache(CacheConfig.MOVIE_COUNTS);
+        Long total = ReplicaRoutingDataSource.isReplicaRead()
+                ? Objects.requireNonNullElseGet(counts.get(key, Long.class), () -> moviesRepository.count(specification))
+                : counts.get(key, () -> moviesRepository.count(specification));
+
+        return Objects.requireNonNull(total);
+    }
+
+    private void checkVersion(Long version, Long expectedVersion) {
+        if (Objects.nonNull(expectedVersion) && !expectedVersion.equals(version)) {
+            throw new CinemaException(ErrorType.PRECONDITION_FAILED, "Movie was modified");
+        }
     }
 
-    private void checkForDuplicate(String name) {
-        if(moviesRepository.existsByName(name)) {
-            throw new CinemaException(ErrorType.ALREADY_OCCUPIED, "This name is already exist");
+    private Movie saveAndFlush(Movie movie) {
+        try {
+            return moviesRepository.saveAndFlush(movie);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolations.translate(e);
         }
     }
 
-    private void checkCost(int cost) {
+    static void checkCost(int cost) {
         if(cost <= 0) {
             throw new CinemaException(ErrorType.INTERNAL_ERROR, "Cost should be greater than 0");
         }
@@ -0,0 +1,13 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.OrderDto;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface OrderIngestService {
+
+    /**
+     * @return completes with the accepted order once it is durable, without holding a thread meanwhile
+     */
+    CompletableFuture<OrderDto> accept(OrderDto orderDto);
+}
@@ -0,0 +1,81 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.journal.JournaledOrder;
+import com.goose.cinema.journal.OrderJournal;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind order creation: an order is acknowledged once it is in the local journal, and
+ * JournalWriter stores it later. Its id is taken up front from orders_id_seq, so the order can be
+ * looked up once stored and a replay inserts it only once. The movie and seat capacity are only
+ * checked when it is stored: until then a lookup answers 404, and an order refused then answers
+ * 410 with the reason, see JournalWriter.
+ */
+@Service
+@Timed(value = "cinema.service", histogram = true)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cinema.orders.ingest", havingValue = "journal")
+public class OrderIngestServiceI implements OrderIngestService {
+    // Same block size as the orders_id_seq generator on Order, so the ranges never overlap.
+    private static final int ID_BLOCK = 50;
+
+    private final OrderJournal orderJournal;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${cinema.orders.journal.append-timeout}")
+    private Duration appendTimeout;
+
+    private long nextId;
+    private long lastId = -1;
+
+    @Override
+    public CompletableFuture<OrderDto> accept(OrderDto orderInput) {
+        if (Objects.isNull(orderInput.getMovieId()) || Objects.isNull(orderInput.getParticipants())) {
+            throw new CinemaException(ErrorType.INTERNAL_ERROR, "Missing information");
+        }
+        OrderServiceI.checkParticipants(orderInput.getParticipants());
+
+        JournaledOrder order = JournaledOrder.of(nextId(), orderInput.getMovieId(), orderInput.getParticipants(),
+                LocalDate.now());
+        CompletableFuture<JournaledOrder> durable = orderJournal.append(order);
+        if (durable == null) throw new CinemaException(ErrorType.TOO_MANY_REQUESTS, "Order journal is full");
+
+        return durable.thenApply(journaled -> accepted(order))
+                .orTimeout(appendTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    throw new CinemaException(ErrorType.INTERNAL_ERROR, "Order could not be journaled");
+                });
+    }
+
+    private static OrderDto accepted(JournaledOrder order) {
+        OrderDto accepted = new OrderDto();
+        accepted.setId(order.getId());
+        accepted.setMovieId(order.getMovieId());
+        accepted.setOrderTime(order.getOrderTime());
+        accepted.setParticipants(order.getParticipants());
+        accepted.setVersion(0L);
+        return accepted;
+    }
+
+    private synchronized long nextId() {
+        if (nextId > lastId) {
+            lastId = Objects.requireNonNull(jdbcTemplate.queryForObject("SELECT nextval('orders_id_seq')", Long.class));
+            nextId = lastId - ID_BLOCK + 1;
+        }
+        return nextId++;
+    }
+}
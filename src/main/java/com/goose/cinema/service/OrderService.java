@@ -1,20 +1,33 @@
 package com.goose.cinema.service;
 
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.OrderDto;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public interface OrderService {
 
     OrderDto findById(Long id);
 
-    Page<OrderDto> searchAll(OrderDto orderDto, Pageable pageable);
+    Long findVersionById(Long id);
+
+    Slice<OrderDto> searchAll(OrderDto orderDto, Pageable pageable, boolean withTotal);
+
+    CursorPage<OrderDto> searchAfter(OrderDto orderDto, String after, Integer size);
 
     OrderDto create(OrderDto orderDto);
 
-    OrderDto update(OrderDto orderDto);
+    OrderDto create(OrderDto orderDto, String idempotencyKey);
+
+    List<OrderDto> createAll(List<OrderDto> orderDtos);
+
+    OrderDto update(OrderDto orderDto, Long expectedVersion);
 
     void delete(Long id);
+
+    int purgeIdempotencyKeys();
 }
@@ -1,72 +1,194 @@
 package com.goose.cinema.service;
 
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.exception.CinemaException;
 import com.goose.cinema.exception.ErrorType;
 import com.goose.cinema.mapper.MapStructMapper;
 import com.goose.cinema.persistance.Order;
+import com.goose.cinema.repository.IdempotencyKeyRepository;
 import com.goose.cinema.repository.MovieRepository;
+import com.goose.cinema.repository.OrderRejectionRepository;
 import com.goose.cinema.repository.OrderRepository;
+import com.goose.cinema.routing.ReplicaRoutingDataSource;
+import com.goose.cinema.specification.KeysetCursor;
 import com.goose.cinema.specification.OrderSpecification;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "cinema.service", histogram = true)
 @RequiredArgsConstructor
 public class OrderServiceI implements OrderService{
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int FLUSH_CHUNK_SIZE = 1_000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final OrderRepository ordersRepository;
     private final MovieRepository moviesRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final OrderRejectionRepository orderRejectionRepository;
     private final MapStructMapper mapper;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+
+    // Keys are kept for the same window the local cache remembers them.
+    @Value("${cinema.idempotency.ttl}")
+    private Duration idempotencyTtl;
 
     @Override
     @Transactional(readOnly = true)
     public OrderDto findById(Long id) {
-        Order byId = ordersRepository.findById(id)
-                .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Order not found"));
+        Order byId = ordersRepository.findById(id).orElseThrow(() -> notFound(id));
 
         return mapper.orderToOrderDto(byId);
     }
 
     @Override
-    public Page<OrderDto> searchAll(OrderDto orderDto, Pageable pageable) {
-        Page<Order> ordersPage = ordersRepository.findAll(OrderSpecification.orderSpecification(orderDto), pageable);
+    @Transactional(readOnly = true)
+    public Long findVersionById(Long id) {
+        return ordersRepository.findVersionById(id).orElseThrow(() -> notFound(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OrderDto> searchAll(OrderDto orderDto, Pageable pageable, boolean withTotal) {
+        Specification<Order> specification = OrderSpecification.orderSpecification(orderDto);
+        Slice<OrderDto> ordersSlice = ordersRepository.findSlice(specification, pageable).map(mapper::orderToOrderDto);
+
+        if (!withTotal) return ordersSlice;
+
+        return PageableExecutionUtils.getPage(ordersSlice.getContent(), pageable,
+                () -> countAll(orderDto, specification));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> searchAfter(OrderDto orderDto, String after, Integer size) {
+        Specification<Order> specification = OrderSpecification.orderSpecification(orderDto)
+                .and(OrderSpecification.afterId(KeysetCursor.decode(after)));
+        Slice<Order> ordersSlice = ordersRepository.findSlice(specification, KeysetCursor.firstPage(size));
 
-        return new PageImpl<>(ordersPage.get().map(mapper::orderToOrderDto).toList());
+        return new CursorPage<>(ordersSlice.map(mapper::orderToOrderDto).getContent(),
+                KeysetCursor.next(ordersSlice, Order::getId));
     }
 
     @Override
     public OrderDto create(OrderDto orderInput) {
         if(Objects.nonNull(orderInput.getMovieId()) && Objects.nonNull(orderInput.getParticipants())) {
-            checkExistMovie(orderInput.getMovieId());
             checkParticipants(orderInput.getParticipants());
 
-            Order newOrder = new Order();
-            newOrder.setMovieId(orderInput.getMovieId());
-            newOrder.setOrderTime(LocalDate.now());
-            newOrder.setParticipants(orderInput.getParticipants());
+            Order newOrder = newOrder(orderInput, LocalDate.now());
 
-            ordersRepository.save(newOrder);
+            saveAndFlush(newOrder);
+            evictMovies(Set.of(newOrder.getMovieId()));
             return mapper.orderToOrderDto(newOrder);
         }
         else throw new CinemaException(ErrorType.INTERNAL_ERROR, "Missing information");
     }
 
+    /**
+     * A key seen before returns the order it created, from this node's cache or the idempotency_keys
+     * table, without validating or inserting again. A concurrent duplicate waits only on the key's row.
+     */
+    @Override
+    public OrderDto create(OrderDto orderInput, String idempotencyKey) {
+        if (Objects.isNull(idempotencyKey)) return create(orderInput);
+        checkIdempotencyKey(idempotencyKey);
+
+        Cache keys = cacheManager.getCache(CacheConfig.IDEMPOTENCY_KEYS);
+        OrderDto original = keys.get(idempotencyKey, OrderDto.class);
+        if (Objects.isNull(original)) {
+            if (idempotencyKeyRepository.claim(idempotencyKey) == 1) {
+                OrderDto created = create(orderInput);
+                idempotencyKeyRepository.complete(idempotencyKey, created.getId());
+                afterCommit(() -> keys.put(idempotencyKey, created));
+                return created;
+            }
+
+            original = idempotencyKeyRepository.findOrderIdByKey(idempotencyKey)
+                    .flatMap(ordersRepository::findById)
+                    .map(mapper::orderToOrderDto)
+                    .orElseThrow(() -> new CinemaException(ErrorType.CONFLICT,
+                            "Order of this Idempotency-Key no longer exists"));
+            keys.put(idempotencyKey, original);
+        }
+
+        checkSameOrder(original, orderInput);
+        return original;
+    }
+
+    @Override
+    public List<OrderDto> createAll(List<OrderDto> ordersInput) {
+        if (ordersInput.size() > MAX_BATCH_SIZE) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Batch should contain at most " + MAX_BATCH_SIZE + " orders");
+        }
+        if (ordersInput.isEmpty()) return List.of();
+
+        ordersInput.forEach(orderInput -> {
+            if (Objects.isNull(orderInput.getMovieId()) || Objects.isNull(orderInput.getParticipants())) {
+                throw new CinemaException(ErrorType.INTERNAL_ERROR, "Missing information");
+            }
+            checkParticipants(orderInput.getParticipants());
+        });
+        Set<Long> movieIds = ordersInput.stream().map(OrderDto::getMovieId).collect(Collectors.toSet());
+        checkExistMovies(movieIds);
+
+        LocalDate orderTime = LocalDate.now();
+        List<OrderDto> result = new ArrayList<>(ordersInput.size());
+        for (int from = 0; from < ordersInput.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Order> chunk = ordersInput.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, ordersInput.size())).stream()
+                    .map(orderInput -> newOrder(orderInput, orderTime))
+                    .toList();
+
+            saveAllAndFlush(chunk);
+            chunk.forEach(order -> result.add(mapper.orderToOrderDto(order)));
+            entityManager.clear();
+        }
+
+        evictMovies(movieIds);
+        return result;
+    }
+
     @Override
-    public OrderDto update(OrderDto orderInput) {
+    public OrderDto update(OrderDto orderInput, Long expectedVersion) {
         Order updateOrder = ordersRepository.findById(orderInput.getId())
                 .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Order not found"));
+        checkVersion(updateOrder.getVersion(), expectedVersion);
+
+        Set<Long> movieIds = new HashSet<>();
+        movieIds.add(updateOrder.getMovieId());
 
         if(Objects.nonNull(orderInput.getMovieId())) {
-            checkExistMovie(orderInput.getMovieId());
             updateOrder.setMovieId(orderInput.getMovieId());
+            movieIds.add(orderInput.getMovieId());
         }
 
         if(Objects.nonNull(orderInput.getParticipants())) {
@@ -76,25 +198,121 @@ public class OrderServiceI implements OrderService{
 
         if(Objects.nonNull(orderInput.getOrderTime())) updateOrder.setOrderTime(orderInput.getOrderTime());
 
+        saveAndFlush(updateOrder);
+        evictMovies(movieIds);
         return mapper.orderToOrderDto(updateOrder);
     }
 
     @Override
     public void delete(Long id) {
-        if (!ordersRepository.existsById(id)) {
-            throw new CinemaException(ErrorType.NOT_FOUND, "Order not found");
+        Long movieId = ordersRepository.deleteReturningMovieId(id)
+                .orElseThrow(() -> new CinemaException(ErrorType.NOT_FOUND, "Order not found"));
+
+        evictMovies(Set.of(movieId));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${cinema.idempotency.purge-interval}",
+            initialDelayString = "${cinema.idempotency.purge-interval}")
+    public int purgeIdempotencyKeys() {
+        return idempotencyKeyRepository.deleteCreatedBefore(Instant.now().minus(idempotencyTtl));
+    }
+
+    private long countAll(OrderDto orderDto, Specification<Order> specification) {
+        OrderDto key = Objects.requireNonNullElseGet(orderDto, OrderDto::new);
+        Cache counts = cacheManager.getCache(CacheConfig.ORDER_COUNTS);
+        // Replica reads only use counts the primary cached, see ReplicaRoutingDataSource.isReplicaRead.
+        Long total = ReplicaRoutingDataSource.isReplicaRead()
+                ? Objects.requireNonNullElseGet(counts.get(key, Long.class), () -> ordersRepository.count(specification))
+                : counts.get(key, () -> ordersRepository.count(specification));
+
+        return Objects.requireNonNull(total);
+    }
+
+    // A journaled order the database refused is gone for good, unlike one that is not stored yet.
+    private CinemaException notFound(Long id) {
+        return orderRejectionRepository.findById(id)
+                .map(rejection -> new CinemaException(ErrorType.GONE, "Order was rejected: " + ConstraintViolations
+                        .translate(rejection.getSqlState(), rejection.getConstraintName(), "Not enough information")
+                        .getMessage()))
+                .orElseGet(() -> new CinemaException(ErrorType.NOT_FOUND, "Order not found"));
+    }
+
+    // Orders are part of the cached movie view, so their movies are evicted on every node.
+    private void evictMovies(Set<Long> movieIds) {
+        Cache movies = cacheManager.getCache(CacheConfig.MOVIES);
+        movieIds.stream().filter(Objects::nonNull).forEach(movies::evict);
+    }
+
+    private Order newOrder(OrderDto orderInput, LocalDate orderTime) {
+        Order newOrder = new Order();
+        newOrder.setMovieId(orderInput.getMovieId());
+        newOrder.setOrderTime(orderTime);
+        newOrder.setParticipants(orderInput.getParticipants());
+        return newOrder;
+    }
+
+    private static void checkIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new CinemaException(ErrorType.BAD_REQUEST,
+                    "Idempotency-Key should have from 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
         }
+    }
+
+    private static void checkSameOrder(OrderDto original, OrderDto orderInput) {
+        if (!Objects.equals(original.getMovieId(), orderInput.getMovieId())
+                || !Objects.equals(original.getParticipants(), orderInput.getParticipants())) {
+            throw new CinemaException(ErrorType.CONFLICT, "Idempotency-Key was used for a different order");
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 
-        ordersRepository.deleteById(id);
+    private void checkVersion(Long version, Long expectedVersion) {
+        if (Objects.nonNull(expectedVersion) && !expectedVersion.equals(version)) {
+            throw new CinemaException(ErrorType.PRECONDITION_FAILED, "Order was modified");
+        }
+    }
+
+    private void checkExistMovies(Set<Long> movieIds) {
+        Set<Long> missing = new TreeSet<>(movieIds);
+        moviesRepository.findExistingIds(movieIds).forEach(missing::remove);
+
+        if (!missing.isEmpty()) {
+            throw new CinemaException(ErrorType.NOT_FOUND, "Movie doesn't exists: " + missing);
+        }
+    }
+
+    private void saveAndFlush(Order order) {
+        try {
+            ordersRepository.saveAndFlush(order);
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolations.translate(e);
+        }
     }
 
-    private void checkExistMovie(Long movieId) {
-        if(!moviesRepository.existsById(movieId)) {
-            throw new CinemaException(ErrorType.NOT_FOUND, "Movie doesn't exists");
+    private void saveAllAndFlush(List<Order> orders) {
+        try {
+            ordersRepository.saveAll(orders);
+            ordersRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw ConstraintViolations.translate(e);
         }
     }
 
-    private void checkParticipants(int participants) {
+    static void checkParticipants(int participants) {
         if(participants <= 0) {
             throw new CinemaException(ErrorType.INTERNAL_ERROR,
                     "The participants number should be more than 0");
@@ -0,0 +1,22 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.OrderDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveMovieService {
+
+    Mono<MovieDtoAll> findById(Long id);
+
+    Flux<OrderDto> findOrders(Long id);
+
+    Flux<MovieDto> searchAll(MovieDto movieDto);
+
+    Mono<MovieDtoAll> create(MovieDto movieDto);
+
+    Mono<MovieDtoAll> update(MovieDto movieDto, Long expectedVersion);
+
+    Mono<Void> delete(Long id);
+}
@@ -0,0 +1,149 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.mapper.MapStructMapper;
+import com.goose.cinema.persistance.MovieRecord;
+import com.goose.cinema.repository.ReactiveMovieRepository;
+import com.goose.cinema.repository.ReactiveOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Objects;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveMovieServiceI implements ReactiveMovieService {
+
+    private final ReactiveMovieRepository moviesRepository;
+    private final ReactiveOrderRepository ordersRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final MapStructMapper mapper;
+    private final CacheManager cacheManager;
+
+    @Override
+    public Mono<MovieDtoAll> findById(Long id) {
+        return findRecord(id)
+                .map(mapper::movieRecordToMovieDtoAll)
+                .flatMap(movie -> findOrders(id).collectList().map(orders -> {
+                    movie.setOrders(orders);
+                    return movie;
+                }))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Flux<OrderDto> findOrders(Long id) {
+        return ordersRepository.findAllByMovieIdOrderById(id).map(mapper::orderRecordToOrderDto);
+    }
+
+    @Override
+    public Flux<MovieDto> searchAll(MovieDto movieDto) {
+        return entityTemplate.select(MovieRecord.class)
+                .matching(Query.query(criteria(movieDto)).sort(Sort.by("id")))
+                .all()
+                .map(mapper::movieRecordToMovieDto);
+    }
+
+    @Override
+    public Mono<MovieDtoAll> create(MovieDto movieDto) {
+        if(Objects.isNull(movieDto.getName())
+                || Objects.isNull(movieDto.getReleaseDate())
+                || Objects.isNull(movieDto.getCost())) {
+            return Mono.error(new CinemaException(ErrorType.INTERNAL_ERROR, "Not enough information"));
+        }
+
+        return Mono.fromCallable(() -> {
+                    MovieServiceI.checkCost(movieDto.getCost());
+
+                    MovieRecord newMovie = new MovieRecord();
+                    newMovie.setName(movieDto.getName());
+                    newMovie.setCost(movieDto.getCost());
+                    newMovie.setReleaseDate(movieDto.getReleaseDate());
+                    return newMovie;
+                })
+                .flatMap(moviesRepository::save)
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolations::translate)
+                .map(mapper::movieRecordToMovieDtoAll);
+    }
+
+    @Override
+    public Mono<MovieDtoAll> update(MovieDto movieDto, Long expectedVersion) {
+        return findRecord(movieDto.getId())
+                .map(updateMovie -> {
+                    checkVersion(updateMovie.getVersion(), expectedVersion);
+
+                    if (Objects.nonNull(movieDto.getName())) updateMovie.setName(movieDto.getName());
+
+                    if (Objects.nonNull(movieDto.getCost())) {
+                        MovieServiceI.checkCost(movieDto.getCost());
+                        updateMovie.setCost(movieDto.getCost());
+                    }
+
+                    if (Objects.nonNull(movieDto.getReleaseDate())) updateMovie.setReleaseDate(movieDto.getReleaseDate());
+                    return updateMovie;
+                })
+                .flatMap(moviesRepository::save)
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolations::translate)
+                .as(transactionalOperator::transactional)
+                .flatMap(movie -> evictMovie(movie.getId()).thenReturn(mapper.movieRecordToMovieDtoAll(movie)));
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return moviesRepository.deleteMovieById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new CinemaException(ErrorType.NOT_FOUND, "Movie doesn't exists"))
+                        : evictMovie(id));
+    }
+
+    private Mono<MovieRecord> findRecord(Long id) {
+        return moviesRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new CinemaException(ErrorType.NOT_FOUND, "Movie not found")));
+    }
+
+    // Other nodes may run the servlet stack with its movie cache; the eviction broadcast is blocking JDBC.
+    private Mono<Void> evictMovie(Long id) {
+        return Mono.<Void>fromRunnable(() -> cacheManager.getCache(CacheConfig.MOVIES).evict(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Criteria criteria(MovieDto movieDto) {
+        Criteria criteria = Criteria.empty();
+        if (movieDto == null) return criteria;
+
+        if (Objects.nonNull(movieDto.getName())) criteria = criteria.and("name").like("%" + escapeLike(movieDto.getName()) + "%");
+        if (Objects.nonNull(movieDto.getCost())) criteria = criteria.and("cost").is(movieDto.getCost());
+        if (Objects.nonNull(movieDto.getReleaseDate())) criteria = criteria.and("releaseDate").is(movieDto.getReleaseDate());
+        return criteria;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static void checkVersion(Long version, Long expectedVersion) {
+        if (Objects.nonNull(expectedVersion) && !expectedVersion.equals(version)) {
+            throw new CinemaException(ErrorType.PRECONDITION_FAILED, "Movie was modified");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.OrderDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveOrderService {
+
+    Mono<OrderDto> findById(Long id);
+
+    Flux<OrderDto> searchAll(OrderDto orderDto);
+
+    Mono<OrderDto> create(OrderDto orderInput);
+
+    Mono<OrderDto> update(OrderDto orderInput, Long expectedVersion);
+
+    Mono<Void> delete(Long id);
+}
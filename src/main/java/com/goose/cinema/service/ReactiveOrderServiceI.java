@@ -0,0 +1,138 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.mapper.MapStructMapper;
+import com.goose.cinema.persistance.OrderRecord;
+import com.goose.cinema.repository.ReactiveOrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveOrderServiceI implements ReactiveOrderService {
+
+    private final ReactiveOrderRepository ordersRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final MapStructMapper mapper;
+    private final CacheManager cacheManager;
+
+    @Override
+    public Mono<OrderDto> findById(Long id) {
+        return findRecord(id).map(mapper::orderRecordToOrderDto);
+    }
+
+    @Override
+    public Flux<OrderDto> searchAll(OrderDto orderDto) {
+        return entityTemplate.select(OrderRecord.class)
+                .matching(Query.query(criteria(orderDto)).sort(Sort.by("id")))
+                .all()
+                .map(mapper::orderRecordToOrderDto);
+    }
+
+    @Override
+    public Mono<OrderDto> create(OrderDto orderInput) {
+        if(Objects.isNull(orderInput.getMovieId()) || Objects.isNull(orderInput.getParticipants())) {
+            return Mono.error(new CinemaException(ErrorType.INTERNAL_ERROR, "Missing information"));
+        }
+
+        return Mono.fromCallable(() -> {
+                    OrderServiceI.checkParticipants(orderInput.getParticipants());
+
+                    OrderRecord newOrder = new OrderRecord();
+                    newOrder.setMovieId(orderInput.getMovieId());
+                    newOrder.setOrderTime(LocalDate.now());
+                    newOrder.setParticipants(orderInput.getParticipants());
+                    return newOrder;
+                })
+                .flatMap(ordersRepository::save)
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolations::translate)
+                .flatMap(order -> evictMovies(Set.of(order.getMovieId())).thenReturn(mapper.orderRecordToOrderDto(order)));
+    }
+
+    @Override
+    public Mono<OrderDto> update(OrderDto orderInput, Long expectedVersion) {
+        Set<Long> movieIds = new HashSet<>();
+
+        return findRecord(orderInput.getId())
+                .map(updateOrder -> {
+                    checkVersion(updateOrder.getVersion(), expectedVersion);
+                    movieIds.add(updateOrder.getMovieId());
+
+                    if(Objects.nonNull(orderInput.getMovieId())) {
+                        updateOrder.setMovieId(orderInput.getMovieId());
+                        movieIds.add(orderInput.getMovieId());
+                    }
+
+                    if(Objects.nonNull(orderInput.getParticipants())) {
+                        OrderServiceI.checkParticipants(orderInput.getParticipants());
+                        updateOrder.setParticipants(orderInput.getParticipants());
+                    }
+
+                    if(Objects.nonNull(orderInput.getOrderTime())) updateOrder.setOrderTime(orderInput.getOrderTime());
+                    return updateOrder;
+                })
+                .flatMap(ordersRepository::save)
+                .onErrorMap(DataIntegrityViolationException.class, ConstraintViolations::translate)
+                .as(transactionalOperator::transactional)
+                .flatMap(order -> evictMovies(movieIds).thenReturn(mapper.orderRecordToOrderDto(order)));
+    }
+
+    @Override
+    public Mono<Void> delete(Long id) {
+        return ordersRepository.deleteReturningMovieId(id)
+                .switchIfEmpty(Mono.error(() -> new CinemaException(ErrorType.NOT_FOUND, "Order not found")))
+                .flatMap(movieId -> evictMovies(Set.of(movieId)));
+    }
+
+    private Mono<OrderRecord> findRecord(Long id) {
+        return ordersRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new CinemaException(ErrorType.NOT_FOUND, "Order not found")));
+    }
+
+    // Orders are part of the cached movie view of servlet nodes; the eviction broadcast is blocking JDBC.
+    private Mono<Void> evictMovies(Set<Long> movieIds) {
+        return Mono.<Void>fromRunnable(() -> {
+                    Cache movies = cacheManager.getCache(CacheConfig.MOVIES);
+                    movieIds.stream().filter(Objects::nonNull).forEach(movies::evict);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Criteria criteria(OrderDto orderDto) {
+        Criteria criteria = Criteria.empty();
+        if (orderDto == null) return criteria;
+
+        if (Objects.nonNull(orderDto.getMovieId())) criteria = criteria.and("movieId").is(orderDto.getMovieId());
+        if (Objects.nonNull(orderDto.getOrderTime())) criteria = criteria.and("orderTime").is(orderDto.getOrderTime());
+        if (Objects.nonNull(orderDto.getParticipants())) criteria = criteria.and("participants").is(orderDto.getParticipants());
+        return criteria;
+    }
+
+    private static void checkVersion(Long version, Long expectedVersion) {
+        if (Objects.nonNull(expectedVersion) && !expectedVersion.equals(version)) {
+            throw new CinemaException(ErrorType.PRECONDITION_FAILED, "Order was modified");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.CostBandReportDto;
+import com.goose.cinema.dto.ReleaseYearReportDto;
+import com.goose.cinema.dto.WeeklyReportDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReportService {
+
+    List<WeeklyReportDto> findWeekly(LocalDate from, LocalDate to);
+
+    List<ReleaseYearReportDto> findReleaseYears();
+
+    List<CostBandReportDto> findCostBands();
+
+    boolean refresh();
+
+    boolean refreshIfEnabled();
+}
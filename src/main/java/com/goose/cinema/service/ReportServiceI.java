@@ -0,0 +1,68 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.CostBandReportDto;
+import com.goose.cinema.dto.ReleaseYearReportDto;
+import com.goose.cinema.dto.WeeklyReportDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.repository.ReportRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "cinema.service", histogram = true)
+@RequiredArgsConstructor
+public class ReportServiceI implements ReportService {
+    private final ReportRepository reportRepository;
+
+    // false leaves the report views as they are, e.g. when another job refreshes them.
+    @Value("${cinema.reporting.refresh-enabled:true}")
+    private boolean refreshEnabled;
+
+    @Override
+    public List<WeeklyReportDto> findWeekly(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "from should not be after to");
+        }
+        return reportRepository.findWeekly(from, to);
+    }
+
+    @Override
+    public List<ReleaseYearReportDto> findReleaseYears() {return reportRepository.findReleaseYears();}
+
+    @Override
+    public List<CostBandReportDto> findCostBands() {return reportRepository.findCostBands();}
+
+    /**
+     * Refreshes every report view unless another instance is already doing it; CONCURRENTLY keeps the
+     * views readable while they are rebuilt.
+     */
+    @Override
+    @Transactional
+    public boolean refresh() {
+        if (!reportRepository.tryLockRefresh()) {
+            log.debug("Report refresh already running elsewhere, skipping");
+            return false;
+        }
+        reportRepository.refreshWeekly();
+        reportRepository.refreshReleaseYears();
+        reportRepository.refreshCostBands();
+        return true;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${cinema.reporting.refresh-interval}",
+            initialDelayString = "${cinema.reporting.refresh-interval}")
+    public boolean refreshIfEnabled() {return refreshEnabled && refresh();}
+}
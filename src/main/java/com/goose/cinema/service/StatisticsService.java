@@ -0,0 +1,17 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.BoxOfficeDayDto;
+import com.goose.cinema.dto.BoxOfficeDto;
+import com.goose.cinema.dto.BoxOfficeRanking;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface StatisticsService {
+
+    BoxOfficeDto findTotals(Long movieId);
+
+    List<BoxOfficeDayDto> findDaily(Long movieId, LocalDate from, LocalDate to);
+
+    List<BoxOfficeDto> findTop(Integer limit, BoxOfficeRanking ranking);
+}
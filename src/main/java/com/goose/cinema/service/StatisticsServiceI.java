@@ -0,0 +1,67 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.BoxOfficeDayDto;
+import com.goose.cinema.dto.BoxOfficeDto;
+import com.goose.cinema.dto.BoxOfficeRanking;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.repository.BoxOfficeRepository;
+import com.goose.cinema.repository.MovieRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "cinema.service", histogram = true)
+@RequiredArgsConstructor
+public class StatisticsServiceI implements StatisticsService {
+    private static final int MAX_TOP = 100;
+
+    private final BoxOfficeRepository boxOfficeRepository;
+    private final MovieRepository moviesRepository;
+
+    @Override
+    public BoxOfficeDto findTotals(Long movieId) {
+        return boxOfficeRepository.findTotalsByMovieId(movieId)
+                .orElseGet(() -> {
+                    checkExistMovie(movieId);
+                    return BoxOfficeDto.empty(movieId);
+                });
+    }
+
+    @Override
+    public List<BoxOfficeDayDto> findDaily(Long movieId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "from should not be after to");
+        }
+
+        List<BoxOfficeDayDto> days = boxOfficeRepository.findDailyByMovieId(movieId, from, to);
+        if (days.isEmpty()) checkExistMovie(movieId);
+        return days;
+    }
+
+    @Override
+    public List<BoxOfficeDto> findTop(Integer limit, BoxOfficeRanking ranking) {
+        if (limit < 1 || limit > MAX_TOP) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Limit should be between 1 and " + MAX_TOP);
+        }
+
+        PageRequest top = PageRequest.of(0, limit);
+        return switch (ranking) {
+            case TICKETS -> boxOfficeRepository.findTopByTickets(top);
+            case REVENUE -> boxOfficeRepository.findTopByRevenue(top);
+        };
+    }
+
+    private void checkExistMovie(Long movieId) {
+        if (!moviesRepository.existsById(movieId)) {
+            throw new CinemaException(ErrorType.NOT_FOUND, "Movie not found");
+        }
+    }
+}
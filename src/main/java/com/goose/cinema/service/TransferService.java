@@ -0,0 +1,25 @@
+package com.goose.cinema.service;
+
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.dto.OrderDto;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+@Service
+public interface TransferService {
+
+    long importMovies(InputStream csv);
+
+    void exportMovies(OutputStream csv);
+
+    long importOrders(InputStream csv);
+
+    void exportOrders(OutputStream csv);
+
+    void streamMovies(MovieDto movieDto, NameMatch match, OutputStream ndjson);
+
+    void streamOrders(OrderDto orderDto, OutputStream ndjson);
+}
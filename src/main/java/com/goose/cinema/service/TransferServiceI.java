@@ -0,0 +1,323 @@
+package com.goose.cinema.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.mapper.MapStructMapper;
+import com.goose.cinema.persistance.Movie;
+import com.goose.cinema.persistance.Order;
+import com.goose.cinema.repository.MovieRepository;
+import com.goose.cinema.repository.OrderRepository;
+import com.goose.cinema.specification.MovieSpecification;
+import com.goose.cinema.specification.OrderSpecification;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@Transactional
+@Timed(value = "cinema.service", histogram = true)
+@RequiredArgsConstructor
+public class TransferServiceI implements TransferService {
+    private static final String MOVIES_HEADER = "name,release_date,cost";
+    private static final String ORDERS_HEADER = "movie_id,order_time,participants";
+    private static final String ID_COLUMN = "id";
+
+    // Must match allocationSize of the entity sequence generators, ids are handed out the same way.
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final DataSource dataSource;
+    private final CacheManager cacheManager;
+    private final MovieRepository moviesRepository;
+    private final OrderRepository ordersRepository;
+    private final MapStructMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Value("${cinema.stream.fetch-size}")
+    private int fetchSize;
+
+    @Override
+    public long importMovies(InputStream csv) {
+        return copyIn(new CsvReader(csv), "movies", MOVIES_HEADER, TransferServiceI::writeMovie);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMovies(OutputStream csv) {
+        copyOut("COPY (SELECT id, name, release_date::date, cost FROM movies ORDER BY id) "
+                + "TO STDOUT WITH (FORMAT csv, HEADER)", csv);
+    }
+
+    @Override
+    public long importOrders(InputStream csv) {
+        long imported = copyIn(new CsvReader(csv), "orders", ORDERS_HEADER, TransferServiceI::writeOrder);
+
+        cacheManager.getCache(CacheConfig.MOVIES).clear();
+        return imported;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(OutputStream csv) {
+        copyOut("COPY (SELECT id, movie_id, order_time::date, participants FROM orders ORDER BY id) "
+                + "TO STDOUT WITH (FORMAT csv, HEADER)", csv);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamMovies(MovieDto movieDto, NameMatch match, OutputStream ndjson) {
+        if (Objects.nonNull(movieDto) && Objects.nonNull(movieDto.getName())) moviesRepository.forceCustomPlans();
+        try (Stream<Movie> movies = moviesRepository.streamAll(
+                MovieSpecification.movieSpecification(movieDto, match), Sort.by("id"), fetchSize)) {
+            writeLines(movies, mapper::movieToMovieDto, ndjson);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOrders(OrderDto orderDto, OutputStream ndjson) {
+        try (Stream<Order> orders = ordersRepository.streamAll(
+                OrderSpecification.orderSpecification(orderDto), Sort.by("id"), fetchSize)) {
+            writeLines(orders, mapper::orderToOrderDto, ndjson);
+        }
+    }
+
+    // Each entity is detached once written, so the persistence context stays as small as one fetch.
+    private <T> void writeLines(Stream<T> entities, Function<T, ?> toDto, OutputStream ndjson) {
+        Iterator<T> iterator = entities.iterator();
+        try {
+            for (long written = 1; iterator.hasNext(); written++) {
+                T entity = iterator.next();
+                ndjson.write(objectMapper.writeValueAsBytes(toDto.apply(entity)));
+                ndjson.write('\n');
+                entityManager.detach(entity);
+
+                if (written % fetchSize == 0) ndjson.flush();
+            }
+            ndjson.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long copyIn(CsvReader reader, String table, String header, RowWriter rowWriter) {
+        boolean withIds = checkHeader(reader.next(), header);
+        int offset = withIds ? 1 : 0;
+        String sql = "COPY " + table + " (id," + header + ") FROM STDIN WITH (FORMAT csv)";
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            long imported = 0;
+
+            for (List<String> fields = reader.next(); fields != null; fields = reader.next()) {
+                if (fields.stream().allMatch(Objects::isNull)) continue;
+
+                StringBuilder row = new StringBuilder();
+                if (withIds) row.append(parseId(fields.get(0), reader)).append(',');
+                rowWriter.write(fields.subList(Math.min(offset, fields.size()), fields.size()), row, reader);
+                chunk.add(row.toString());
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    imported += copyChunk(connection, copyManager, sql, table, chunk, withIds);
+                    chunk.clear();
+                }
+            }
+            imported += copyChunk(connection, copyManager, sql, table, chunk, withIds);
+
+            if (withIds) moveSequencePastMaxId(connection, table);
+            return imported;
+        } catch (SQLException e) {
+            throw translate(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private long copyChunk(Connection connection, CopyManager copyManager, String sql, String table,
+                           List<String> chunk, boolean withIds) throws SQLException, IOException {
+        if (chunk.isEmpty()) return 0;
+
+        StringBuilder payload = new StringBuilder(chunk.size() * 48);
+        if (withIds) {
+            chunk.forEach(row -> payload.append(row).append('\n'));
+        } else {
+            long[] ids = allocateIds(connection, table, chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                payload.append(ids[i]).append(',').append(chunk.get(i)).append('\n');
+            }
+        }
+        return copyManager.copyIn(sql, new StringReader(payload.toString()));
+    }
+
+    private long[] allocateIds(Connection connection, String table, int count) throws SQLException {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        long[] ids = new long[count];
+
+        try (Statement statement = connection.createStatement();
+             ResultSet hiValues = statement.executeQuery(
+                     "SELECT nextval('" + table + "_id_seq') FROM generate_series(1, " + blocks + ")")) {
+            int i = 0;
+            while (hiValues.next() && i < count) {
+                long hi = hiValues.getLong(1);
+                for (long id = hi - ID_BLOCK_SIZE + 1; id <= hi && i < count; id++) {
+                    ids[i++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void moveSequencePastMaxId(Connection connection, String table) throws SQLException {
+        String sequence = table + "_id_seq";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setval('" + sequence + "', GREATEST("
+                    + "(SELECT COALESCE(MAX(id), 0) FROM " + table + "), "
+                    + "(SELECT last_value FROM " + sequence + ")) + " + ID_BLOCK_SIZE + ", false)");
+        }
+    }
+
+    private void copyOut(String sql, OutputStream csv) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, csv);
+        } catch (SQLException e) {
+            throw translate(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void writeMovie(List<String> fields, StringBuilder row, CsvReader reader) {
+        checkColumns(fields, 3, reader);
+        String name = fields.get(0);
+        LocalDate releaseDate = parseDate(fields.get(1), reader);
+        Integer cost = parseInt(fields.get(2), reader);
+
+        if (Objects.isNull(name) || name.isBlank() || Objects.isNull(releaseDate) || Objects.isNull(cost)) {
+            throw new CinemaException(ErrorType.INTERNAL_ERROR, "Not enough information at line " + reader.getLine());
+        }
+        MovieServiceI.checkCost(cost);
+
+        row.append('"').append(name.replace("\"", "\"\"")).append('"')
+                .append(',').append(releaseDate)
+                .append(',').append(cost);
+    }
+
+    private static void writeOrder(List<String> fields, StringBuilder row, CsvReader reader) {
+        checkColumns(fields, 3, reader);
+        Long movieId = parseLong(fields.get(0), reader);
+        LocalDate orderTime = Objects.requireNonNullElseGet(parseDate(fields.get(1), reader), LocalDate::now);
+        Integer participants = parseInt(fields.get(2), reader);
+
+        if (Objects.isNull(movieId) || Objects.isNull(participants)) {
+            throw new CinemaException(ErrorType.INTERNAL_ERROR, "Missing information at line " + reader.getLine());
+        }
+        OrderServiceI.checkParticipants(participants);
+
+        row.append(movieId)
+                .append(',').append(orderTime)
+                .append(',').append(participants);
+    }
+
+    private static boolean checkHeader(List<String> fields, String header) {
+        String actual = Objects.isNull(fields) ? "" : String.join(",", fields.stream().map(String::valueOf).toList());
+        if (actual.equals(header)) return false;
+        if (actual.equals(ID_COLUMN + "," + header)) return true;
+
+        throw new CinemaException(ErrorType.BAD_REQUEST, "Expected header: " + header);
+    }
+
+    private static void checkColumns(List<String> fields, int expected, CsvReader reader) {
+        if (fields.size() != expected) {
+            throw new CinemaException(ErrorType.BAD_REQUEST,
+                    "Expected " + expected + " columns at line " + reader.getLine());
+        }
+    }
+
+    private static LocalDate parseDate(String value, CsvReader reader) {
+        try {
+            return Objects.isNull(value) ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Invalid date at line " + reader.getLine());
+        }
+    }
+
+    private static Integer parseInt(String value, CsvReader reader) {
+        try {
+            return Objects.isNull(value) ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Invalid number at line " + reader.getLine());
+        }
+    }
+
+    private static Long parseLong(String value, CsvReader reader) {
+        try {
+            return Objects.isNull(value) ? null : Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Invalid number at line " + reader.getLine());
+        }
+    }
+
+    private static Long parseId(String value, CsvReader reader) {
+        Long id = parseLong(value, reader);
+        if (Objects.isNull(id)) {
+            throw new CinemaException(ErrorType.INTERNAL_ERROR, "Missing id at line " + reader.getLine());
+        }
+        return id;
+    }
+
+    private static CinemaException translate(SQLException e) {
+        return ConstraintViolations.translate(e.getSQLState(), constraint(e), "Transfer failed");
+    }
+
+    private static String constraint(SQLException e) {
+        ServerErrorMessage message = e instanceof PSQLException psqlException ? psqlException.getServerErrorMessage() : null;
+        return Objects.isNull(message) ? null : message.getConstraint();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(List<String> fields, StringBuilder row, CsvReader reader);
+    }
+}
@@ -0,0 +1,56 @@
+package com.goose.cinema.specification;
+
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+
+    public static final Sort SORT = Sort.by(Sort.Direction.ASC, "id");
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String PREFIX = "id:";
+
+    public static Pageable firstPage(Integer size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Size should be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(0, size, SORT);
+    }
+
+    public static <T> String next(Slice<T> slice, Function<T, Long> idExtractor) {
+        if (!slice.hasNext()) return null;
+
+        List<T> content = slice.getContent();
+        return encode(idExtractor.apply(content.get(content.size() - 1)));
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) throw new IllegalArgumentException(decoded);
+            return Long.valueOf(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new CinemaException(ErrorType.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
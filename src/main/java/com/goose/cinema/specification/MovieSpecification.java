@@ -1,6 +1,7 @@
 package com.goose.cinema.specification;
 
 import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.NameMatch;
 import com.goose.cinema.persistance.Movie;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -11,16 +12,58 @@ import java.time.LocalDate;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class MovieSpecification {
 
+    private static final char LIKE_ESCAPE = '\\';
+
     public static Specification<Movie> movieSpecification(MovieDto movieDto) {
-        return Specification.where(likeName(movieDto.getName()))
+        return movieSpecification(movieDto, NameMatch.SUBSTRING);
+    }
+
+    public static Specification<Movie> movieSpecification(MovieDto movieDto, NameMatch match) {
+        if (movieDto == null) return Specification.where(null);
+
+        return Specification.where(matchName(movieDto.getName(), match))
                 .and(equalCost(movieDto.getCost()))
                 .and(equalReleaseDate(movieDto.getReleaseDate()));
     }
 
-    private static Specification<Movie> likeName(String name) {
+    public static Specification<Movie> afterId(Long id) {
+        if (id == null) return null;
+
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), id);
+    }
+
+    private static Specification<Movie> matchName(String name, NameMatch match) {
         if (name == null) return null;
 
-        return (root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("name"), "%" + name + "%");
+        return switch (match) {
+            case SUBSTRING -> likeName("%" + escapeLike(name) + "%");
+            case PREFIX -> likeName(escapeLike(name) + "%");
+            case FUZZY -> similarName(name);
+        };
+    }
+
+    private static Specification<Movie> likeName(String pattern) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("name"), pattern, LIKE_ESCAPE);
+    }
+
+    private static Specification<Movie> similarName(String name) {
+        return (root, query, criteriaBuilder) -> {
+            if (Movie.class.equals(query.getResultType())) {
+                query.orderBy(
+                        criteriaBuilder.desc(criteriaBuilder.function("similarity", Float.class,
+                                root.get("name"), criteriaBuilder.literal(name))),
+                        criteriaBuilder.asc(root.get("id")));
+            }
+
+            return criteriaBuilder.isTrue(criteriaBuilder.function("trgm_similar", Boolean.class,
+                    root.get("name"), criteriaBuilder.literal(name)));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
     private static Specification<Movie> equalCost(Integer cost) {
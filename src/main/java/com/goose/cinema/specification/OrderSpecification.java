@@ -12,11 +12,19 @@ import java.time.LocalDate;
 public class OrderSpecification {
 
     public static Specification<Order> orderSpecification(OrderDto orderDto) {
+        if (orderDto == null) return Specification.where(null);
+
         return Specification.where(equalMovieid(orderDto.getMovieId()))
                 .and(equalOrderTime(orderDto.getOrderTime()))
                 .and(equalParticipants(orderDto.getParticipants()));
     }
 
+    public static Specification<Order> afterId(Long id) {
+        if (id == null) return null;
+
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), id);
+    }
+
     public static Specification<Order> equalMovieid(Long movieId) {
         if (movieId == null) return null;
 
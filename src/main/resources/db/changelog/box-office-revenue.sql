@@ -0,0 +1,135 @@
+--liquibase formatted sql
+
+--changeset user:orders-ticket-price splitStatements:false
+-- The movie cost an order was placed at; a later price change leaves the revenue it earned alone.
+-- Nullable so an order for a missing movie still fails on its foreign key, not on this column.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS "ticket_price" INT;
+
+CREATE OR REPLACE FUNCTION orders_ticket_price() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' OR NEW.movie_id IS DISTINCT FROM OLD.movie_id THEN
+        NEW.ticket_price := (SELECT cost FROM movies WHERE id = NEW.movie_id);
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS orders_ticket_price ON orders;
+CREATE TRIGGER orders_ticket_price BEFORE INSERT OR UPDATE OF movie_id ON orders
+    FOR EACH ROW EXECUTE FUNCTION orders_ticket_price();
+
+-- Existing orders take the current cost; the backfill is not a change the rollups, capacity or
+-- outbox triggers should see.
+ALTER TABLE orders DISABLE TRIGGER USER;
+UPDATE orders o SET ticket_price = m.cost FROM movies m WHERE m.id = o.movie_id AND o.ticket_price IS NULL;
+ALTER TABLE orders ENABLE TRIGGER USER;
+
+--changeset user:box-office-revenue
+ALTER TABLE box_office_totals ADD COLUMN IF NOT EXISTS "revenue" BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE box_office_daily ADD COLUMN IF NOT EXISTS "revenue" BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS box_office_totals_revenue_idx ON box_office_totals ("revenue" DESC, "movie_id");
+
+UPDATE box_office_totals t SET revenue = o.revenue
+FROM (SELECT movie_id, sum(participants::bigint * ticket_price) AS revenue
+      FROM orders WHERE movie_id IS NOT NULL GROUP BY movie_id) o
+WHERE t.movie_id = o.movie_id;
+
+UPDATE box_office_daily d SET revenue = o.revenue
+FROM (SELECT movie_id, order_time AS day, sum(participants::bigint * ticket_price) AS revenue
+      FROM orders WHERE movie_id IS NOT NULL GROUP BY movie_id, order_time) o
+WHERE d.movie_id = o.movie_id AND d.day = o.day;
+
+--changeset user:box-office-function-revenue splitStatements:false
+-- Same netting as before, with each order adding or removing the revenue it was placed at.
+CREATE OR REPLACE FUNCTION box_office_apply() RETURNS trigger AS $$
+DECLARE
+    delta text;
+    r record;
+BEGIN
+    delta := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT movie_id, order_time, 1 AS orders, participants AS tickets, '
+            || 'participants::bigint * coalesce(ticket_price, 0) AS revenue FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT movie_id, order_time, -1 AS orders, -participants AS tickets, '
+            || '-participants::bigint * coalesce(ticket_price, 0) AS revenue FROM old_rows'
+        ELSE 'SELECT movie_id, order_time, 1 AS orders, participants AS tickets, '
+            || 'participants::bigint * coalesce(ticket_price, 0) AS revenue FROM new_rows '
+            || 'UNION ALL SELECT movie_id, order_time, -1, -participants, '
+            || '-participants::bigint * coalesce(ticket_price, 0) FROM old_rows'
+    END;
+
+    FOR r IN EXECUTE format('SELECT movie_id, sum(orders) AS orders, sum(tickets) AS tickets, '
+            || 'sum(revenue) AS revenue FROM (%s) d WHERE movie_id IS NOT NULL GROUP BY movie_id '
+            || 'HAVING sum(orders) <> 0 OR sum(tickets) <> 0 OR sum(revenue) <> 0 ORDER BY movie_id', delta)
+    LOOP
+        IF r.orders > 0 THEN
+            INSERT INTO box_office_totals AS t (movie_id, orders, tickets, revenue)
+            VALUES (r.movie_id, r.orders, r.tickets, r.revenue)
+            ON CONFLICT (movie_id) DO UPDATE
+                SET orders = t.orders + excluded.orders, tickets = t.tickets + excluded.tickets,
+                    revenue = t.revenue + excluded.revenue;
+        ELSE
+            UPDATE box_office_totals
+            SET orders = orders + r.orders, tickets = tickets + r.tickets, revenue = revenue + r.revenue
+            WHERE movie_id = r.movie_id;
+        END IF;
+    END LOOP;
+
+    FOR r IN EXECUTE format('SELECT movie_id, order_time::date AS day, sum(orders) AS orders, '
+            || 'sum(tickets) AS tickets, sum(revenue) AS revenue FROM (%s) d WHERE movie_id IS NOT NULL '
+            || 'GROUP BY movie_id, order_time::date '
+            || 'HAVING sum(orders) <> 0 OR sum(tickets) <> 0 OR sum(revenue) <> 0 ORDER BY movie_id, day', delta)
+    LOOP
+        IF r.orders > 0 THEN
+            INSERT INTO box_office_daily AS d (movie_id, day, orders, tickets, revenue)
+            VALUES (r.movie_id, r.day, r.orders, r.tickets, r.revenue)
+            ON CONFLICT (movie_id, day) DO UPDATE
+                SET orders = d.orders + excluded.orders, tickets = d.tickets + excluded.tickets,
+                    revenue = d.revenue + excluded.revenue;
+        ELSE
+            UPDATE box_office_daily
+            SET orders = orders + r.orders, tickets = tickets + r.tickets, revenue = revenue + r.revenue
+            WHERE movie_id = r.movie_id AND day = r.day;
+        END IF;
+    END LOOP;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+--changeset user:report-views-recorded-revenue
+-- Revenue comes from the rollups, as recorded when each order was placed.
+DROP MATERIALIZED VIEW IF EXISTS report_weekly;
+CREATE MATERIALIZED VIEW report_weekly AS
+SELECT date_trunc('week', d.day)::date          AS week,
+       sum(d.orders)::bigint                    AS orders,
+       sum(d.tickets)::bigint                   AS tickets,
+       sum(d.revenue)::bigint                   AS revenue
+FROM box_office_daily d
+GROUP BY 1;
+CREATE UNIQUE INDEX report_weekly_week_idx ON report_weekly (week);
+
+DROP MATERIALIZED VIEW IF EXISTS report_release_years;
+CREATE MATERIALIZED VIEW report_release_years AS
+SELECT extract(YEAR FROM m.release_date)::int           AS release_year,
+       count(*)::bigint                                 AS movies,
+       coalesce(sum(t.orders), 0)::bigint               AS orders,
+       coalesce(sum(t.tickets), 0)::bigint              AS tickets,
+       coalesce(sum(t.revenue), 0)::bigint              AS revenue
+FROM movies m
+LEFT JOIN box_office_totals t ON t.movie_id = m.id
+GROUP BY 1;
+CREATE UNIQUE INDEX report_release_years_year_idx ON report_release_years (release_year);
+
+-- Bands of ten by the current cost: 1-10, 11-20, ...
+DROP MATERIALIZED VIEW IF EXISTS report_cost_bands;
+CREATE MATERIALIZED VIEW report_cost_bands AS
+SELECT (m.cost - 1) / 10 * 10 + 1                       AS min_cost,
+       (m.cost - 1) / 10 * 10 + 10                      AS max_cost,
+       count(*)::bigint                                 AS movies,
+       coalesce(sum(t.orders), 0)::bigint               AS orders,
+       coalesce(sum(t.tickets), 0)::bigint              AS tickets,
+       coalesce(sum(t.revenue), 0)::bigint              AS revenue
+FROM movies m
+LEFT JOIN box_office_totals t ON t.movie_id = m.id
+GROUP BY 1, 2;
+CREATE UNIQUE INDEX report_cost_bands_min_cost_idx ON report_cost_bands (min_cost);
@@ -0,0 +1,166 @@
+--liquibase formatted sql
+
+--changeset user:box-office-tables
+CREATE TABLE IF NOT EXISTS box_office_totals(
+    "movie_id"      BIGINT      PRIMARY KEY REFERENCES movies("id") ON DELETE CASCADE,
+    "orders"        BIGINT      NOT NULL DEFAULT 0,
+    "tickets"       BIGINT      NOT NULL DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS box_office_totals_tickets_idx ON box_office_totals ("tickets" DESC, "movie_id");
+
+CREATE TABLE IF NOT EXISTS box_office_daily(
+    "movie_id"      BIGINT      NOT NULL REFERENCES movies("id") ON DELETE CASCADE,
+    "day"           DATE        NOT NULL,
+    "orders"        BIGINT      NOT NULL DEFAULT 0,
+    "tickets"       BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY ("movie_id", "day")
+);
+
+INSERT INTO box_office_totals (movie_id, orders, tickets)
+SELECT movie_id, count(*), sum(participants) FROM orders WHERE movie_id IS NOT NULL GROUP BY movie_id
+ON CONFLICT (movie_id) DO NOTHING;
+
+INSERT INTO box_office_daily (movie_id, day, orders, tickets)
+SELECT movie_id, order_time::date, count(*), sum(participants) FROM orders WHERE movie_id IS NOT NULL
+GROUP BY movie_id, order_time::date
+ON CONFLICT (movie_id, day) DO NOTHING;
+
+--changeset user:box-office-function splitStatements:false
+-- Statement-level, so a COPY import or a batch insert updates each movie/day row once.
+-- Rows are touched in movie_id order to keep concurrent writers from deadlocking.
+CREATE OR REPLACE FUNCTION box_office_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE box_office_totals t
+        SET orders = t.orders - o.orders, tickets = t.tickets - o.tickets
+        FROM (SELECT movie_id, count(*) AS orders, sum(participants) AS tickets
+              FROM old_rows WHERE movie_id IS NOT NULL GROUP BY movie_id) o
+        WHERE t.movie_id = o.movie_id;
+
+        UPDATE box_office_daily d
+        SET orders = d.orders - o.orders, tickets = d.tickets - o.tickets
+        FROM (SELECT movie_id, order_time::date AS day, count(*) AS orders, sum(participants) AS tickets
+              FROM old_rows WHERE movie_id IS NOT NULL GROUP BY movie_id, order_time::date) o
+        WHERE d.movie_id = o.movie_id AND d.day = o.day;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO box_office_totals AS t (movie_id, orders, tickets)
+        SELECT movie_id, count(*), sum(participants) FROM new_rows WHERE movie_id IS NOT NULL
+        GROUP BY movie_id ORDER BY movie_id
+        ON CONFLICT (movie_id) DO UPDATE
+            SET orders = t.orders + excluded.orders, tickets = t.tickets + excluded.tickets;
+
+        INSERT INTO box_office_daily AS d (movie_id, day, orders, tickets)
+        SELECT movie_id, order_time::date, count(*), sum(participants) FROM new_rows WHERE movie_id IS NOT NULL
+        GROUP BY movie_id, order_time::date ORDER BY movie_id, order_time::date
+        ON CONFLICT (movie_id, day) DO UPDATE
+            SET orders = d.orders + excluded.orders, tickets = d.tickets + excluded.tickets;
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+--changeset user:box-office-triggers
+DROP TRIGGER IF EXISTS orders_box_office_insert ON orders;
+CREATE TRIGGER orders_box_office_insert AFTER INSERT ON orders
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION box_office_apply();
+
+DROP TRIGGER IF EXISTS orders_box_office_update ON orders;
+CREATE TRIGGER orders_box_office_update AFTER UPDATE ON orders
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION box_office_apply();
+
+DROP TRIGGER IF EXISTS orders_box_office_delete ON orders;
+CREATE TRIGGER orders_box_office_delete AFTER DELETE ON orders
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION box_office_apply();
+
+--changeset user:box-office-function-ordered splitStatements:false
+-- Old and new rows are netted into one delta per movie and per movie/day and applied in key order,
+-- totals before daily rows, so concurrent inserts, updates and deletes all take their row locks in
+-- the same order and cannot deadlock; rows whose delta nets to zero are not touched at all.
+CREATE OR REPLACE FUNCTION box_office_apply() RETURNS trigger AS $$
+DECLARE
+    delta text;
+    r record;
+BEGIN
+    delta := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT movie_id, order_time, 1 AS orders, participants AS tickets FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT movie_id, order_time, -1 AS orders, -participants AS tickets FROM old_rows'
+        ELSE 'SELECT movie_id, order_time, 1 AS orders, participants AS tickets FROM new_rows '
+            || 'UNION ALL SELECT movie_id, order_time, -1, -participants FROM old_rows'
+    END;
+
+    FOR r IN EXECUTE format('SELECT movie_id, sum(orders) AS orders, sum(tickets) AS tickets FROM (%s) d '
+            || 'WHERE movie_id IS NOT NULL GROUP BY movie_id '
+            || 'HAVING sum(orders) <> 0 OR sum(tickets) <> 0 ORDER BY movie_id', delta)
+    LOOP
+        INSERT INTO box_office_totals AS t (movie_id, orders, tickets) VALUES (r.movie_id, r.orders, r.tickets)
+        ON CONFLICT (movie_id) DO UPDATE
+            SET orders = t.orders + excluded.orders, tickets = t.tickets + excluded.tickets;
+    END LOOP;
+
+    FOR r IN EXECUTE format('SELECT movie_id, order_time::date AS day, sum(orders) AS orders, '
+            || 'sum(tickets) AS tickets FROM (%s) d WHERE movie_id IS NOT NULL GROUP BY movie_id, order_time::date '
+            || 'HAVING sum(orders) <> 0 OR sum(tickets) <> 0 ORDER BY movie_id, day', delta)
+    LOOP
+        INSERT INTO box_office_daily AS d (movie_id, day, orders, tickets)
+        VALUES (r.movie_id, r.day, r.orders, r.tickets)
+        ON CONFLICT (movie_id, day) DO UPDATE
+            SET orders = d.orders + excluded.orders, tickets = d.tickets + excluded.tickets;
+    END LOOP;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+--changeset user:box-office-function-shrink-only splitStatements:false
+-- A negative delta only shrinks existing rows: deleting a movie cascades to its orders after its rollup
+-- rows are gone, and inserting them again would break their foreign key.
+CREATE OR REPLACE FUNCTION box_office_apply() RETURNS trigger AS $$
+DECLARE
+    delta text;
+    r record;
+BEGIN
+    delta := CASE TG_OP
+        WHEN 'INSERT' THEN 'SELECT movie_id, order_time, 1 AS orders, participants AS tickets FROM new_rows'
+        WHEN 'DELETE' THEN 'SELECT movie_id, order_time, -1 AS orders, -participants AS tickets FROM old_rows'
+        ELSE 'SELECT movie_id, order_time, 1 AS orders, participants AS tickets FROM new_rows '
+            || 'UNION ALL SELECT movie_id, order_time, -1, -participants FROM old_rows'
+    END;
+
+    FOR r IN EXECUTE format('SELECT movie_id, sum(orders) AS orders, sum(tickets) AS tickets FROM (%s) d '
+            || 'WHERE movie_id IS NOT NULL GROUP BY movie_id '
+            || 'HAVING sum(orders) <> 0 OR sum(tickets) <> 0 ORDER BY movie_id', delta)
+    LOOP
+        IF r.orders > 0 THEN
+            INSERT INTO box_office_totals AS t (movie_id, orders, tickets) VALUES (r.movie_id, r.orders, r.tickets)
+            ON CONFLICT (movie_id) DO UPDATE
+                SET orders = t.orders + excluded.orders, tickets = t.tickets + excluded.tickets;
+        ELSE
+            UPDATE box_office_totals SET orders = orders + r.orders, tickets = tickets + r.tickets
+            WHERE movie_id = r.movie_id;
+        END IF;
+    END LOOP;
+
+    FOR r IN EXECUTE format('SELECT movie_id, order_time::date AS day, sum(orders) AS orders, '
+            || 'sum(tickets) AS tickets FROM (%s) d WHERE movie_id IS NOT NULL GROUP BY movie_id, order_time::date '
+            || 'HAVING sum(orders) <> 0 OR sum(tickets) <> 0 ORDER BY movie_id, day', delta)
+    LOOP
+        IF r.orders > 0 THEN
+            INSERT INTO box_office_daily AS d (movie_id, day, orders, tickets)
+            VALUES (r.movie_id, r.day, r.orders, r.tickets)
+            ON CONFLICT (movie_id, day) DO UPDATE
+                SET orders = d.orders + excluded.orders, tickets = d.tickets + excluded.tickets;
+        ELSE
+            UPDATE box_office_daily SET orders = orders + r.orders, tickets = tickets + r.tickets
+            WHERE movie_id = r.movie_id AND day = r.day;
+        END IF;
+    END LOOP;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset user:movies-id-sequence
+CREATE SEQUENCE IF NOT EXISTS movies_id_seq INCREMENT BY 50 OWNED BY movies.id;
+SELECT setval('movies_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM movies), false);
+ALTER TABLE movies ALTER COLUMN id SET DEFAULT nextval('movies_id_seq');
+
+--changeset user:orders-id-sequence
+CREATE SEQUENCE IF NOT EXISTS orders_id_seq INCREMENT BY 50 OWNED BY orders.id;
+SELECT setval('orders_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM orders), false);
+ALTER TABLE orders ALTER COLUMN id SET DEFAULT nextval('orders_id_seq');
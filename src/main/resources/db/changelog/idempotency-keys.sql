@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset user:idempotency-keys
+-- The primary key is the only lock a retried request waits on: a concurrent duplicate blocks
+-- on the uncommitted row until the first request commits or rolls back.
+CREATE TABLE IF NOT EXISTS idempotency_keys(
+    "key"           VARCHAR(255)    PRIMARY KEY,
+    "order_id"      BIGINT          REFERENCES orders("id") ON DELETE CASCADE,
+    "created_at"    TIMESTAMPTZ     NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_at_idx ON idempotency_keys ("created_at");
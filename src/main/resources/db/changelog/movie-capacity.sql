@@ -0,0 +1,63 @@
+--liquibase formatted sql
+
+--changeset user:movie-capacity-table
+-- Movies without a row here have no seat limit.
+CREATE TABLE IF NOT EXISTS movie_capacity(
+    "movie_id"      BIGINT      PRIMARY KEY REFERENCES movies("id") ON DELETE CASCADE,
+    "seats"         INT         NOT NULL,
+    "available"     INT         NOT NULL,
+    CONSTRAINT movie_capacity_seats_check CHECK (seats >= 0),
+    CONSTRAINT movie_capacity_available_check CHECK (available >= 0)
+);
+
+--changeset user:movie-capacity-function splitStatements:false
+-- Every order write takes its seats with one conditional decrement per movie: the CHECK on
+-- available aborts the statement that would oversell, and concurrent writers queue on the
+-- movie's row only from that UPDATE to commit, never for a read-then-write round trip.
+-- Rows are touched in movie_id order to keep concurrent writers from deadlocking.
+CREATE OR REPLACE FUNCTION movie_capacity_apply() RETURNS trigger AS $$
+DECLARE
+    r record;
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        FOR r IN SELECT movie_id, sum(participants) AS tickets FROM new_rows WHERE movie_id IS NOT NULL
+                 GROUP BY movie_id ORDER BY movie_id
+        LOOP
+            UPDATE movie_capacity SET available = available - r.tickets WHERE movie_id = r.movie_id;
+        END LOOP;
+    ELSIF TG_OP = 'DELETE' THEN
+        FOR r IN SELECT movie_id, sum(participants) AS tickets FROM old_rows WHERE movie_id IS NOT NULL
+                 GROUP BY movie_id ORDER BY movie_id
+        LOOP
+            UPDATE movie_capacity SET available = LEAST(seats, available + r.tickets) WHERE movie_id = r.movie_id;
+        END LOOP;
+    ELSE
+        FOR r IN SELECT movie_id, sum(tickets) AS tickets
+                 FROM (SELECT movie_id, participants AS tickets FROM new_rows
+                       UNION ALL
+                       SELECT movie_id, -participants FROM old_rows) d
+                 WHERE movie_id IS NOT NULL GROUP BY movie_id HAVING sum(tickets) <> 0 ORDER BY movie_id
+        LOOP
+            UPDATE movie_capacity SET available = LEAST(seats, available - r.tickets) WHERE movie_id = r.movie_id;
+        END LOOP;
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+--changeset user:movie-capacity-triggers
+DROP TRIGGER IF EXISTS orders_capacity_insert ON orders;
+CREATE TRIGGER orders_capacity_insert AFTER INSERT ON orders
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION movie_capacity_apply();
+
+DROP TRIGGER IF EXISTS orders_capacity_update ON orders;
+CREATE TRIGGER orders_capacity_update AFTER UPDATE ON orders
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION movie_capacity_apply();
+
+DROP TRIGGER IF EXISTS orders_capacity_delete ON orders;
+CREATE TRIGGER orders_capacity_delete AFTER DELETE ON orders
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION movie_capacity_apply();
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset user:movies-pg-trgm
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+--changeset user:movies-name-trgm-idx runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movies_name_trgm_idx ON movies USING GIN ("name" gin_trgm_ops);
@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset user:order-rejections
+-- Journaled orders the database refused after they were acknowledged, so a lookup can tell a
+-- refused order from one that is not stored yet. No foreign keys: the movie may not exist.
+CREATE TABLE IF NOT EXISTS order_rejections(
+    "order_id"          BIGINT          PRIMARY KEY,
+    "movie_id"          BIGINT          NOT NULL,
+    "sql_state"         VARCHAR(5),
+    "constraint_name"   VARCHAR(63),
+    "rejected_at"       TIMESTAMPTZ     NOT NULL DEFAULT now()
+);
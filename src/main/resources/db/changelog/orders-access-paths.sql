@@ -0,0 +1,34 @@
+--liquibase formatted sql
+
+--changeset user:date-columns
+-- Both columns are mapped as LocalDate; as DATE their equality predicates compare like for like.
+-- report_release_years reads release_date, so it is rebuilt around the type change.
+DROP MATERIALIZED VIEW IF EXISTS report_release_years;
+ALTER TABLE movies ALTER COLUMN release_date TYPE DATE;
+ALTER TABLE orders ALTER COLUMN order_time DROP DEFAULT;
+ALTER TABLE orders ALTER COLUMN order_time TYPE DATE;
+ALTER TABLE orders ALTER COLUMN order_time SET DEFAULT CURRENT_DATE;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS report_release_years AS
+SELECT extract(YEAR FROM m.release_date)::int           AS release_year,
+       count(*)::bigint                                 AS movies,
+       coalesce(sum(t.orders), 0)::bigint               AS orders,
+       coalesce(sum(t.tickets), 0)::bigint              AS tickets,
+       coalesce(sum(t.tickets * m.cost), 0)::bigint     AS revenue
+FROM movies m
+LEFT JOIN box_office_totals t ON t.movie_id = m.id
+GROUP BY 1;
+CREATE UNIQUE INDEX IF NOT EXISTS report_release_years_year_idx ON report_release_years (release_year);
+
+-- Trailing id keeps keyset pages (id > cursor ORDER BY id) inside the index for each filter.
+--changeset user:orders-movie-id-idx runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orders_movie_id_idx ON orders ("movie_id", "id");
+
+--changeset user:orders-movie-id-order-time-idx runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orders_movie_id_order_time_idx ON orders ("movie_id", "order_time", "id");
+
+--changeset user:orders-order-time-idx runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS orders_order_time_idx ON orders ("order_time", "id");
+
+--changeset user:movies-release-date-idx runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS movies_release_date_idx ON movies ("release_date", "id");
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset user:orders-movie-cascade
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS orders_movie_id_fkey;
+ALTER TABLE orders ADD CONSTRAINT orders_movie_id_fkey
+    FOREIGN KEY ("movie_id") REFERENCES movies("id") ON DELETE CASCADE;
@@ -0,0 +1,206 @@
+--liquibase formatted sql
+
+--changeset user:outbox-events
+-- id is insertion order, which can commit out of order; consumers read by position, assigned
+-- only to committed events by outbox_events_sequence().
+CREATE TABLE IF NOT EXISTS outbox_events(
+    "id"            BIGSERIAL       PRIMARY KEY,
+    "position"      BIGINT,
+    "aggregate"     VARCHAR(16)     NOT NULL,
+    "aggregate_id"  BIGINT          NOT NULL,
+    "type"          VARCHAR(16)     NOT NULL,
+    "payload"       JSONB           NOT NULL,
+    "created_at"    TIMESTAMPTZ     NOT NULL DEFAULT now()
+);
+CREATE UNIQUE INDEX IF NOT EXISTS outbox_events_position_idx ON outbox_events ("position");
+CREATE INDEX IF NOT EXISTS outbox_events_pending_idx ON outbox_events ("id") WHERE "position" IS NULL;
+
+--changeset user:outbox-events-functions splitStatements:false
+-- Payloads use the API field names, so an event reads like the MovieDto/OrderDto it describes.
+CREATE OR REPLACE FUNCTION outbox_movie_payload(m movies) RETURNS jsonb AS $$
+    SELECT jsonb_build_object('id', m.id, 'name', m.name, 'releaseDate', m.release_date, 'cost', m.cost,
+                              'version', m.version)
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION outbox_order_payload(o orders) RETURNS jsonb AS $$
+    SELECT jsonb_build_object('id', o.id, 'movieId', o.movie_id, 'orderTime', o.order_time,
+                              'participants', o.participants, 'version', o.version)
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Written by the statement that changed the rows, so every write path (JPA, COPY imports, the
+-- journal writer, cascades) records its events in its own transaction. One NOTIFY per transaction
+-- wakes waiting change-feed readers once it commits.
+CREATE OR REPLACE FUNCTION outbox_movies_record() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'movie', o.id, 'deleted', outbox_movie_payload(o) FROM old_rows o ORDER BY o.id;
+    ELSE
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'movie', n.id, CASE TG_OP WHEN 'INSERT' THEN 'created' ELSE 'updated' END, outbox_movie_payload(n)
+        FROM new_rows n ORDER BY n.id;
+    END IF;
+    IF FOUND THEN
+        PERFORM pg_notify('outbox_events', '');
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION outbox_orders_record() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'order', o.id, 'deleted', outbox_order_payload(o) FROM old_rows o ORDER BY o.id;
+    ELSE
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'order', n.id, CASE TG_OP WHEN 'INSERT' THEN 'created' ELSE 'updated' END, outbox_order_payload(n)
+        FROM new_rows n ORDER BY n.id;
+    END IF;
+    IF FOUND THEN
+        PERFORM pg_notify('outbox_events', '');
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Numbers committed events after the last position, in id order. Callers take turns on the advisory
+-- lock, so each one sees every position handed out before and readers never see a later position
+-- commit ahead of an earlier one; a caller finding the lock taken simply reads what is committed.
+CREATE OR REPLACE FUNCTION outbox_events_sequence(batch INT) RETURNS INT AS $$
+DECLARE
+    sequenced INT;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('outbox_events_sequence')) THEN
+        RETURN 0;
+    END IF;
+
+    WITH last AS (SELECT COALESCE(max(position), 0) AS position FROM outbox_events),
+         pending AS (SELECT id, row_number() OVER (ORDER BY id) AS n
+                     FROM (SELECT id FROM outbox_events WHERE position IS NULL ORDER BY id LIMIT batch) p)
+    UPDATE outbox_events e SET position = last.position + pending.n
+    FROM pending, last
+    WHERE e.id = pending.id;
+    GET DIAGNOSTICS sequenced = ROW_COUNT;
+
+    RETURN sequenced;
+END
+$$ LANGUAGE plpgsql;
+
+--changeset user:outbox-events-triggers
+DROP TRIGGER IF EXISTS movies_outbox_insert ON movies;
+CREATE TRIGGER movies_outbox_insert AFTER INSERT ON movies
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION outbox_movies_record();
+
+DROP TRIGGER IF EXISTS movies_outbox_update ON movies;
+CREATE TRIGGER movies_outbox_update AFTER UPDATE ON movies
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION outbox_movies_record();
+
+DROP TRIGGER IF EXISTS movies_outbox_delete ON movies;
+CREATE TRIGGER movies_outbox_delete AFTER DELETE ON movies
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION outbox_movies_record();
+
+DROP TRIGGER IF EXISTS orders_outbox_insert ON orders;
+CREATE TRIGGER orders_outbox_insert AFTER INSERT ON orders
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION outbox_orders_record();
+
+DROP TRIGGER IF EXISTS orders_outbox_update ON orders;
+CREATE TRIGGER orders_outbox_update AFTER UPDATE ON orders
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION outbox_orders_record();
+
+DROP TRIGGER IF EXISTS orders_outbox_delete ON orders;
+CREATE TRIGGER orders_outbox_delete AFTER DELETE ON orders
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION outbox_orders_record();
+
+--changeset user:outbox-events-sequenced-at splitStatements:false
+-- Retention counts from when an event got its position: one created early in a long transaction is
+-- numbered after events created later, and purging by created_at would take those with it.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS "sequenced_at" TIMESTAMPTZ;
+UPDATE outbox_events SET sequenced_at = created_at WHERE position IS NOT NULL AND sequenced_at IS NULL;
+
+-- clock_timestamp(), not now(): a transaction that started earlier may take the lock later, and
+-- sequenced_at has to grow with position.
+CREATE OR REPLACE FUNCTION outbox_events_sequence(batch INT) RETURNS INT AS $$
+DECLARE
+    sequenced INT;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('outbox_events_sequence')) THEN
+        RETURN 0;
+    END IF;
+
+    WITH last AS (SELECT COALESCE(max(position), 0) AS position FROM outbox_events),
+         pending AS (SELECT id, row_number() OVER (ORDER BY id) AS n
+                     FROM (SELECT id FROM outbox_events WHERE position IS NULL ORDER BY id LIMIT batch) p)
+    UPDATE outbox_events e SET position = last.position + pending.n, sequenced_at = clock_timestamp()
+    FROM pending, last
+    WHERE e.id = pending.id;
+    GET DIAGNOSTICS sequenced = ROW_COUNT;
+
+    RETURN sequenced;
+END
+$$ LANGUAGE plpgsql;
+
+--changeset user:outbox-events-notify-on-sequence splitStatements:false
+-- A NOTIFY from every writing transaction serializes their commits on the global notify queue lock.
+-- Writers now only record events; readers pick them up on their recheck interval, and the one that
+-- numbers new events notifies the rest, which is already serialized by the sequencing lock.
+CREATE OR REPLACE FUNCTION outbox_movies_record() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'movie', o.id, 'deleted', outbox_movie_payload(o) FROM old_rows o ORDER BY o.id;
+    ELSE
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'movie', n.id, CASE TG_OP WHEN 'INSERT' THEN 'created' ELSE 'updated' END, outbox_movie_payload(n)
+        FROM new_rows n ORDER BY n.id;
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION outbox_orders_record() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'order', o.id, 'deleted', outbox_order_payload(o) FROM old_rows o ORDER BY o.id;
+    ELSE
+        INSERT INTO outbox_events (aggregate, aggregate_id, type, payload)
+        SELECT 'order', n.id, CASE TG_OP WHEN 'INSERT' THEN 'created' ELSE 'updated' END, outbox_order_payload(n)
+        FROM new_rows n ORDER BY n.id;
+    END IF;
+
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION outbox_events_sequence(batch INT) RETURNS INT AS $$
+DECLARE
+    sequenced INT;
+BEGIN
+    IF NOT pg_try_advisory_xact_lock(hashtext('outbox_events_sequence')) THEN
+        RETURN 0;
+    END IF;
+
+    WITH last AS (SELECT COALESCE(max(position), 0) AS position FROM outbox_events),
+         pending AS (SELECT id, row_number() OVER (ORDER BY id) AS n
+                     FROM (SELECT id FROM outbox_events WHERE position IS NULL ORDER BY id LIMIT batch) p)
+    UPDATE outbox_events e SET position = last.position + pending.n, sequenced_at = clock_timestamp()
+    FROM pending, last
+    WHERE e.id = pending.id;
+    GET DIAGNOSTICS sequenced = ROW_COUNT;
+    IF sequenced > 0 THEN
+        PERFORM pg_notify('outbox_events', '');
+    END IF;
+
+    RETURN sequenced;
+END
+$$ LANGUAGE plpgsql;
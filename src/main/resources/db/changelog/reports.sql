@@ -0,0 +1,37 @@
+--liquibase formatted sql
+
+--changeset user:report-views
+-- Built from the box-office rollups rather than orders, so a refresh never scans the write tables.
+CREATE MATERIALIZED VIEW IF NOT EXISTS report_weekly AS
+SELECT date_trunc('week', d.day)::date          AS week,
+       sum(d.orders)::bigint                    AS orders,
+       sum(d.tickets)::bigint                   AS tickets,
+       sum(d.tickets * m.cost)::bigint          AS revenue
+FROM box_office_daily d
+JOIN movies m ON m.id = d.movie_id
+GROUP BY 1;
+CREATE UNIQUE INDEX IF NOT EXISTS report_weekly_week_idx ON report_weekly (week);
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS report_release_years AS
+SELECT extract(YEAR FROM m.release_date)::int           AS release_year,
+       count(*)::bigint                                 AS movies,
+       coalesce(sum(t.orders), 0)::bigint               AS orders,
+       coalesce(sum(t.tickets), 0)::bigint              AS tickets,
+       coalesce(sum(t.tickets * m.cost), 0)::bigint     AS revenue
+FROM movies m
+LEFT JOIN box_office_totals t ON t.movie_id = m.id
+GROUP BY 1;
+CREATE UNIQUE INDEX IF NOT EXISTS report_release_years_year_idx ON report_release_years (release_year);
+
+-- Bands of ten: 1-10, 11-20, ...
+CREATE MATERIALIZED VIEW IF NOT EXISTS report_cost_bands AS
+SELECT (m.cost - 1) / 10 * 10 + 1                       AS min_cost,
+       (m.cost - 1) / 10 * 10 + 10                      AS max_cost,
+       count(*)::bigint                                 AS movies,
+       coalesce(sum(t.orders), 0)::bigint               AS orders,
+       coalesce(sum(t.tickets), 0)::bigint              AS tickets,
+       coalesce(sum(t.tickets * m.cost), 0)::bigint     AS revenue
+FROM movies m
+LEFT JOIN box_office_totals t ON t.movie_id = m.id
+GROUP BY 1, 2;
+CREATE UNIQUE INDEX IF NOT EXISTS report_cost_bands_min_cost_idx ON report_cost_bands (min_cost);
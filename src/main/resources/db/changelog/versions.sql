@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset user:movies-version
+ALTER TABLE movies ADD COLUMN IF NOT EXISTS "version" BIGINT NOT NULL DEFAULT 0;
+
+--changeset user:orders-version
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS "version" BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,131 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.cache.CacheInvalidationPublisher;
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.MovieDtoAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CacheInvalidationTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationPublisher publisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Cache movies;
+
+    @BeforeEach
+    void setUp() {
+        movies = cacheManager.getCache(CacheConfig.MOVIES);
+        movies.clear();
+    }
+
+    @Test
+    void remoteEvictTest() throws Exception {
+        movies.put(5L, new MovieDtoAll());
+        movies.put(6L, new MovieDtoAll());
+
+        for (int attempt = 0; attempt < 50 && movies.get(5L) != null; attempt++) {
+            notify(publisher.getNodeId() + "|movies|6");
+            notify("other-node|movies|5");
+            Thread.sleep(100);
+        }
+
+        assertThat(movies.get(5L)).isNull();
+        assertThat(movies.get(6L)).isNotNull();
+    }
+
+    @Test
+    void remoteClearTest() throws Exception {
+        movies.put(5L, new MovieDtoAll());
+
+        for (int attempt = 0; attempt < 50 && movies.get(5L) != null; attempt++) {
+            notify("other-node|movies|*");
+            Thread.sleep(100);
+        }
+
+        assertThat(movies.get(5L)).isNull();
+    }
+
+    @Test
+    void evictPublishesTest() throws Exception {
+        try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN cinema_cache");
+            }
+
+            movies.evict(7L);
+
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(5000);
+            assertThat(notifications).isNotNull();
+            assertThat(Arrays.stream(notifications).map(PGNotification::getParameter))
+                    .contains(publisher.getNodeId() + "|movies|7");
+        }
+    }
+
+    @Test
+    void evictInTransactionPublishesAfterCommitTest() throws Exception {
+        try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN cinema_cache");
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                movies.evict(8L);
+                status.setRollbackOnly();
+            });
+            transactionTemplate.executeWithoutResult(status -> {
+                movies.evict(9L);
+                movies.evict(9L);
+            });
+
+            // Sends are asynchronous, so evictions from earlier tests may still be arriving.
+            String evicted = publisher.getNodeId() + "|movies|9";
+            List<String> payloads = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!payloads.contains(evicted) && System.currentTimeMillis() < deadline) {
+                PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications(500);
+                if (notifications == null) continue;
+                Arrays.stream(notifications).map(PGNotification::getParameter).forEach(payloads::add);
+            }
+            assertThat(payloads).filteredOn(payload -> payload.matches(".*\\|movies\\|[89]"))
+                    .containsExactly(evicted);
+        }
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify('cinema_cache', ?)", rs -> {}, payload);
+    }
+}
@@ -0,0 +1,165 @@
+package com.goose.cinema.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goose.cinema.dto.CapacityDto;
+import com.goose.cinema.dto.OrderDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Transactional
+@SpringBootTest
+class CapacityControllerTest {
+    private static final String HOME_URL = "/api/movies/1/capacity";
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void updateTest() throws Exception {
+        setSeats(5)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seats", equalTo(5)))
+                .andExpect(jsonPath("$.available", equalTo(2)));
+
+        setSeats(10)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available", equalTo(7)));
+    }
+
+    @Test
+    void updateBelowSoldTest() throws Exception {
+        setSeats(2)
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void updateIfMovieNotExistTest() throws Exception {
+        mockMvc.perform(put("/api/movies/1000/capacity").content(JSON_MAPPER.writeValueAsString(seats(5)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findIfNotLimitedTest() throws Exception {
+        mockMvc.perform(get(HOME_URL))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createOverCapacityTest() throws Exception {
+        setSeats(5);
+
+        createOrder(3)
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createWithinCapacityTest() throws Exception {
+        setSeats(5);
+
+        createOrder(2)
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available", equalTo(0)));
+    }
+
+    @Test
+    void createAllOverCapacityTest() throws Exception {
+        setSeats(5);
+
+        createOrders(1, 2)
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createAllWithinCapacityTest() throws Exception {
+        setSeats(5);
+
+        createOrders(1, 1)
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available", equalTo(0)));
+    }
+
+    @Test
+    void deleteOrderReleasesSeatsTest() throws Exception {
+        setSeats(3);
+
+        mockMvc.perform(delete("/api/orders/0"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available", equalTo(3)));
+    }
+
+    @Test
+    void deleteTest() throws Exception {
+        setSeats(3);
+
+        mockMvc.perform(delete(HOME_URL))
+                .andExpect(status().isOk())
+                .andExpect(content().string("ok"));
+
+        createOrder(10)
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions setSeats(int seats) throws Exception {
+        return mockMvc.perform(put(HOME_URL).content(JSON_MAPPER.writeValueAsString(seats(seats)))
+                .contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private ResultActions createOrder(int participants) throws Exception {
+        return mockMvc.perform(post("/api/orders").content(JSON_MAPPER.writeValueAsString(order(participants)))
+                .contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private ResultActions createOrders(int... participants) throws Exception {
+        List<OrderDto> orders = Arrays.stream(participants).mapToObj(CapacityControllerTest::order).toList();
+        return mockMvc.perform(post("/api/orders/batch").content(JSON_MAPPER.writeValueAsString(orders))
+                .contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private static OrderDto order(int participants) {
+        OrderDto order = new OrderDto();
+        order.setMovieId(1L);
+        order.setParticipants(participants);
+        return order;
+    }
+
+    private static CapacityDto seats(int seats) {
+        CapacityDto capacity = new CapacityDto();
+        capacity.setSeats(seats);
+        return capacity;
+    }
+}
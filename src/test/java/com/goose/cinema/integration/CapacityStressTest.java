@@ -0,0 +1,142 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.service.CapacityService;
+import com.goose.cinema.service.MovieService;
+import com.goose.cinema.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thousands of single-seat orders race for a few hundred seats through the real service and
+ * connection pool; every seat must be sold exactly once and every other order refused.
+ */
+@SpringBootTest
+class CapacityStressTest {
+    private static final String MOVIE_NAME = "capacityStressMovie";
+    private static final int SEATS = 500;
+    private static final int ORDERS = 3000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CapacityService capacityService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        MovieDto movie = new MovieDto();
+        movie.setName(MOVIE_NAME);
+        movie.setReleaseDate(LocalDate.of(2022, 9, 16));
+        movie.setCost(1);
+        movieId = movieService.create(movie).getId();
+        capacityService.update(movieId, SEATS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM movies WHERE name = ?", MOVIE_NAME);
+    }
+
+    @Test
+    void noOversellTest() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.create(order());
+                        sold.incrementAndGet();
+                    } catch (CinemaException e) {
+                        assertThat(e.getErrorType()).isEqualTo(ErrorType.CONFLICT);
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) result.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sold.get()).isEqualTo(SEATS);
+        assertThat(refused.get()).isEqualTo(ORDERS - SEATS);
+        assertThat(capacityService.findByMovieId(movieId).getAvailable()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(participants) FROM orders WHERE movie_id = ?",
+                Long.class, movieId)).isEqualTo(SEATS);
+    }
+
+    @Test
+    void limitCountsOrdersInFlightTest() throws Exception {
+        capacityService.delete(movieId);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO orders (movie_id, participants) VALUES (?, 3)")) {
+                insert.setLong(1, movieId);
+                insert.executeUpdate();
+            }
+
+            Future<?> limit = executor.submit(() -> capacityService.update(movieId, 10));
+            Thread.sleep(500);
+            assertThat(limit).isNotDone();
+
+            connection.commit();
+            limit.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(capacityService.findByMovieId(movieId).getAvailable()).isEqualTo(7);
+    }
+
+    private OrderDto order() {
+        OrderDto order = new OrderDto();
+        order.setMovieId(movieId);
+        order.setParticipants(1);
+        return order;
+    }
+}
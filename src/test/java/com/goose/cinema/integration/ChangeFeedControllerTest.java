@@ -0,0 +1,191 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.service.ChangeFeedService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+class ChangeFeedControllerTest {
+    private static final String HOME_URL = "/api/changes";
+    private static final String MOVIE_NAME = "changeFeedMovie";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private long after;
+    private int movies;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.queryForObject("SELECT outbox_events_sequence(1000000)", Integer.class);
+        after = jdbcTemplate.queryForObject("SELECT COALESCE(max(position), 0) FROM outbox_events", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM movies WHERE name LIKE ?", MOVIE_NAME + "%");
+    }
+
+    @Test
+    void readCommittedChangesTest() throws Exception {
+        long movieId = insertMovie();
+        long orderId = jdbcTemplate.queryForObject("INSERT INTO orders (movie_id, order_time, participants) "
+                + "VALUES (?, DATE '2022-09-16', 2) RETURNING id", Long.class, movieId);
+        jdbcTemplate.update("UPDATE movies SET cost = 3 WHERE id = ?", movieId);
+        jdbcTemplate.update("DELETE FROM movies WHERE id = ?", movieId);
+
+        read(HOME_URL + "?after=" + after)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(5)))
+                .andExpect(jsonPath("$.events[*].type", contains("created", "created", "updated", "deleted", "deleted")))
+                .andExpect(jsonPath("$.events[0:3].aggregate", contains("movie", "order", "movie")))
+                .andExpect(jsonPath("$.events[3:5].aggregate", containsInAnyOrder("movie", "order")))
+                .andExpect(jsonPath("$.events[0].position", equalTo((int) after + 1)))
+                .andExpect(jsonPath("$.events[0].payload.name", equalTo(MOVIE_NAME + 0)))
+                .andExpect(jsonPath("$.events[0].payload.releaseDate", equalTo("2022-09-16")))
+                .andExpect(jsonPath("$.events[1].aggregateId", equalTo((int) orderId)))
+                .andExpect(jsonPath("$.events[1].payload.movieId", equalTo((int) movieId)))
+                .andExpect(jsonPath("$.events[1].payload.participants", equalTo(2)))
+                .andExpect(jsonPath("$.events[2].payload.cost", equalTo(3)))
+                .andExpect(jsonPath("$.next", equalTo((int) after + 5)));
+
+        read(HOME_URL + "?after=" + (after + 5))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(0)))
+                .andExpect(jsonPath("$.next", equalTo((int) after + 5)));
+    }
+
+    @Test
+    void limitTest() throws Exception {
+        insertMovie();
+        insertMovie();
+
+        read(HOME_URL + "?after=" + after + "&limit=1")
+                .andExpect(jsonPath("$.events", hasSize(1)))
+                .andExpect(jsonPath("$.next", equalTo((int) after + 1)));
+        read(HOME_URL + "?limit=0")
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void longPollWakesOnCommitTest() throws Exception {
+        MvcResult pending = mockMvc.perform(get(HOME_URL + "?after=" + after + "&wait=30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        long movieId = insertMovie();
+
+        pending.getAsyncResult(10_000);
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(1)))
+                .andExpect(jsonPath("$.events[0].aggregateId", equalTo((int) movieId)));
+    }
+
+    @Test
+    void onlySequencingNotifiesTest() throws Exception {
+        try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN outbox_events");
+            }
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+            insertMovie();
+            assertThat(pgConnection.getNotifications(500)).isNullOrEmpty();
+
+            read(HOME_URL + "?after=" + after).andExpect(jsonPath("$.events", hasSize(1)));
+            assertThat(pgConnection.getNotifications(5000)).isNotEmpty();
+        }
+    }
+
+    @Test
+    void longPollTimesOutEmptyTest() throws Exception {
+        read(HOME_URL + "?after=" + after + "&wait=1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(0)));
+    }
+
+    @Test
+    void purgedOffsetIsGoneTest() throws Exception {
+        insertMovie();
+        insertMovie();
+        read(HOME_URL + "?after=" + after).andExpect(status().isOk());
+        jdbcTemplate.update("UPDATE outbox_events SET sequenced_at = now() - INTERVAL '30 days'");
+
+        changeFeedService.purge(Instant.now());
+
+        read(HOME_URL + "?after=" + after)
+                .andExpect(status().isGone());
+        read(HOME_URL + "?after=" + (after + 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(1)));
+    }
+
+    @Test
+    void purgeCountsFromSequencingTest() throws Exception {
+        insertMovie();
+        insertMovie();
+        insertMovie();
+        read(HOME_URL + "?after=" + after).andExpect(status().isOk());
+        jdbcTemplate.update("UPDATE outbox_events SET sequenced_at = now() - INTERVAL '30 days' WHERE position = ?",
+                after + 1);
+        // Created early in a long transaction, but only numbered just now.
+        jdbcTemplate.update("UPDATE outbox_events SET created_at = now() - INTERVAL '30 days' WHERE position = ?",
+                after + 2);
+
+        changeFeedService.purge(Instant.now().minus(Duration.ofDays(7)));
+
+        read(HOME_URL + "?after=" + (after + 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", hasSize(2)));
+    }
+
+    private long insertMovie() {
+        return jdbcTemplate.queryForObject("INSERT INTO movies (name, release_date, cost) "
+                + "VALUES (?, DATE '2022-09-16', 1) RETURNING id", Long.class, MOVIE_NAME + movies++);
+    }
+
+    private ResultActions read(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andReturn();
+        result.getAsyncResult(10_000);
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,169 @@
+package com.goose.cinema.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.journal.JournalWriter;
+import com.goose.cinema.journal.OrderJournal;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "cinema.orders.ingest=journal",
+        "cinema.orders.journal.directory=target/journal-ingest-test",
+        "cinema.orders.journal.max-delay=10ms"})
+class JournalIngestTest {
+    private static final String HOME_URL = "/api/orders";
+    private static final String MOVIE_NAME = "journalIngestMovie";
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    @Autowired
+    private JournalWriter journalWriter;
+
+    @Value("${cinema.orders.journal.directory}")
+    private Path directory;
+
+    private Long movieId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        movieId = jdbcTemplate.queryForObject("INSERT INTO movies (name, release_date, cost) "
+                + "VALUES (?, DATE '2022-09-16', 1) RETURNING id", Long.class, MOVIE_NAME);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM movies WHERE name = ?", MOVIE_NAME);
+    }
+
+    @Test
+    void createIsWrittenBehindTest() throws Exception {
+        MvcResult result = accept(order(movieId));
+        long id = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+
+        await(() -> count("SELECT count(*) FROM orders WHERE id = " + id) == 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT movie_id FROM orders WHERE id = ?", Long.class, id))
+                .isEqualTo(movieId);
+    }
+
+    @Test
+    void createForMissingMovieIsRejectedTest() throws Exception {
+        double rejected = meterRegistry.counter(JournalWriter.REJECTED_METRIC).count();
+
+        MvcResult result = accept(order(movieId + 1_000_000));
+        long id = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+        accept(order(movieId));
+
+        await(() -> meterRegistry.counter(JournalWriter.REJECTED_METRIC).count() > rejected);
+        await(() -> count("SELECT count(*) FROM orders WHERE movie_id = " + movieId) == 1);
+        mockMvc.perform(get(HOME_URL + "/" + id))
+                .andExpect(status().isGone())
+                .andExpect(content().string(containsString("Movie doesn't exists")));
+    }
+
+    @Test
+    void createWithIdempotencyKeyIsSynchronousTest() throws Exception {
+        mockMvc.perform(post(HOME_URL).content(JSON_MAPPER.writeValueAsString(order(movieId)))
+                        .header("Idempotency-Key", "journal-" + movieId)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(count("SELECT count(*) FROM orders WHERE movie_id = " + movieId)).isEqualTo(1);
+    }
+
+    @Test
+    @DirtiesContext
+    void deletedOrderStaysDeletedAfterRestartTest() throws Exception {
+        MvcResult result = accept(order(movieId));
+        long id = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue();
+        await(() -> count("SELECT count(*) FROM orders WHERE id = " + id) == 1);
+        mockMvc.perform(delete(HOME_URL + "/" + id)).andExpect(status().isOk());
+
+        orderJournal.close();
+        await(() -> journalFiles() == 0);
+        double flushed = meterRegistry.counter(JournalWriter.FLUSHED_METRIC).count();
+        new OrderJournal(directory, 1 << 20, 16, 1024, journalWriter::enqueue).close();
+        await(() -> journalWriter.backlog() == 0);
+        Thread.sleep(100);
+
+        assertThat(meterRegistry.counter(JournalWriter.FLUSHED_METRIC).count()).isEqualTo(flushed);
+        assertThat(count("SELECT count(*) FROM orders WHERE id = " + id)).isZero();
+    }
+
+    // The 202 comes from the async dispatch, once the journal has forced the order to disk.
+    private MvcResult accept(OrderDto order) throws Exception {
+        MvcResult result = mockMvc.perform(post(HOME_URL).content(JSON_MAPPER.writeValueAsString(order))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isAccepted())
+                .andReturn();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private long journalFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && !condition.getAsBoolean(); attempt++) Thread.sleep(50);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static OrderDto order(Long movieId) {
+        OrderDto order = new OrderDto();
+        order.setMovieId(movieId);
+        order.setParticipants(2);
+        return order;
+    }
+}
@@ -2,22 +2,47 @@ package com.goose.cinema.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.JsonPath;
+import com.goose.cinema.config.CacheConfig;
 import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.metrics.SqlStatementMetricsInterceptor;
+import com.goose.cinema.metrics.StatementStats;
+import com.goose.cinema.service.MovieServiceI;
+import com.goose.cinema.service.TransferService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -39,6 +64,23 @@ class MovieControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
     @Test
     void createTest() throws Exception {
         String content = JSON_MAPPER.writeValueAsString(createMovieDto());
@@ -53,10 +95,241 @@ class MovieControllerTest {
     @Test
     @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
-    void findByIdTest() throws Exception {
+    void createIfNameExistTest() throws Exception {
+        String content = JSON_MAPPER.writeValueAsString(createMovieDto());
+
+        mockMvc.perform(post(HOME_URL).content(content)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$", equalTo("This name is already exist")));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByIdAfterUpdateTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", equalTo("testMovie1")));
+
+        mockMvc.perform(patch(HOME_URL).content("{\"id\":" + ID + ",\"name\":\"renamedMovie\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
         mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", equalTo(Integer.valueOf(ID))));
+                .andExpect(jsonPath("$.name", equalTo("renamedMovie")));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByIdNotModifiedTest() throws Exception {
+        String etag = mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0.81b206a89f89d5b1123b87606075c6a8\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(HOME_URL + "/" + ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        cacheManager.getCache(CacheConfig.MOVIES).clear();
+
+        mockMvc.perform(get(HOME_URL + "/" + ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get(HOME_URL + "/" + ID + "?view=summary").header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByIdAfterOrderVersionsSwapTest() throws Exception {
+        jdbcTemplate.update("insert into orders(id, movie_id, order_time, participants) "
+                + "values (2, 0, to_timestamp('2022-09-16', 'YYYY-MM-DD'), 1)");
+        jdbcTemplate.update("update orders set version = 1 where id = 1");
+
+        String etag = mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Same order count, last id and version sum, but a different representation.
+        jdbcTemplate.update("update orders set version = 1 - version where id in (1, 2)");
+        cacheManager.getCache(CacheConfig.MOVIES).clear();
+
+        mockMvc.perform(get(HOME_URL + "/" + ID).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].version", is(0)))
+                .andExpect(jsonPath("$.orders[1].version", is(1)));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void updateIfMatchTest() throws Exception {
+        String content = "{\"id\":" + ID + ",\"cost\":5}";
+
+        mockMvc.perform(patch(HOME_URL).content(content).header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch(HOME_URL).content(content).header(HttpHeaders.IF_MATCH, "\"0.d41d8cd98f00b204e9800998ecf8427e\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.d41d8cd98f00b204e9800998ecf8427e\""))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByIdMetricsTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find(SqlStatementMetricsInterceptor.METRIC)
+                .tag("uri", HOME_URL + "/{id}").summary();
+        Timer service = meterRegistry.find("cinema.service")
+                .tag("class", MovieServiceI.class.getName()).tag("method", "findById").timer();
+
+        Timer sqlTime = meterRegistry.find(SqlStatementMetricsInterceptor.TIME_METRIC)
+                .tag("uri", HOME_URL + "/{id}").timer();
+
+        assertThat(statements).isNotNull();
+        assertThat(statements.max()).isEqualTo(2.0);
+        assertThat(sqlTime).isNotNull();
+        assertThat(service).isNotNull();
+        assertThat(service.count()).isPositive();
+    }
+
+    @Test
+    void importMoviesTest() throws Exception {
+        String csv = "name,release_date,cost\n"
+                + "importedMovie1,2022-09-16,100\n"
+                + "\"importedMovie2, \"\"quoted\"\"\",2022-09-17,200\n";
+
+        mockMvc.perform(post(HOME_URL + "/import").content(csv)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        mockMvc.perform(post(HOME_URL + "/all?size=10&include=none").content("{\"name\":\"importedMovie\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)))
+                .andExpect(jsonPath("$.content[1].name", equalTo("importedMovie2, \"quoted\"")))
+                .andExpect(jsonPath("$.content[1].cost", is(200)));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void importMoviesIfNameExistTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/import").content("name,release_date,cost\ntestMovie1,2022-09-16,100\n")
+                        .contentType("text/csv"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importMoviesIfCostInvalidTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/import").content("name,release_date,cost\nimportedMovie,2022-09-16,0\n")
+                        .contentType("text/csv"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void exportMoviesTest() throws Exception {
+        MvcResult result = mockMvc.perform(get(HOME_URL + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string(startsWith("id,name,release_date,cost\n")));
+    }
+
+    @Test
+    void streamMoviesTest() throws Exception {
+        MvcResult result = mockMvc.perform(post(HOME_URL + "/stream?match=prefix").content("{}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    // Called directly: the streamed body runs on another thread that cannot see this test's rows.
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void streamMoviesLinesTest() throws Exception {
+        MovieDto filter = new MovieDto();
+        filter.setName("testMovie");
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        transferService.streamMovies(filter, NameMatch.PREFIX, ndjson);
+
+        List<String> lines = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(JSON_MAPPER.readValue(lines.get(0), MovieDto.class).getName()).isEqualTo(NAME);
+        assertThat(lines.get(0)).doesNotContain("orders");
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByIdTest() throws Exception {
+        StatementStats statements = SqlStatements.during(() ->
+                mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id", equalTo(Integer.valueOf(ID)))));
+
+        assertThat(statements.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findSummaryByIdTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/" + ID + "?view=summary").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", equalTo(Integer.valueOf(ID))))
+                .andExpect(jsonPath("$.orders").doesNotExist());
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findOrdersTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/" + ID + "/orders?size=1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", equalTo(1)))
+                .andExpect(jsonPath("$.content[0].movieId", equalTo(Integer.valueOf(ID))))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    @Test
+    void findOrdersIfMovieNotExistTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/1000/orders").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -72,6 +345,115 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.content[0].name", equalTo(NAME)));
     }
 
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchMoviesIncludeOrdersTest() throws Exception {
+        StatementStats withOrders = SqlStatements.during(() ->
+                mockMvc.perform(post(HOME_URL + "/all?page=0&size=2").content("{}")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[0].orders[0].id", equalTo(1)))
+                        .andExpect(jsonPath("$.content[1].orders[0].id", equalTo(0))));
+
+        StatementStats withoutOrders = SqlStatements.during(() ->
+                mockMvc.perform(post(HOME_URL + "/all?page=0&size=2&include=none").content("{}")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[0].name", equalTo(NAME)))
+                        .andExpect(jsonPath("$.content[0].orders").doesNotExist()));
+
+        assertThat(withOrders.getCount()).isEqualTo(2);
+        assertThat(withoutOrders.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchMoviesByPrefixTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/all?page=0&size=2&match=prefix").content("{\"name\":\"testMovie2\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", equalTo(1)))
+                .andExpect(jsonPath("$.content[0].name", equalTo("testMovie2")));
+
+        mockMvc.perform(post(HOME_URL + "/all?page=0&size=2&match=prefix").content("{\"name\":\"Movie\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", equalTo(0)));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchMoviesFuzzyTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/all?page=0&size=2&match=fuzzy").content("{\"name\":\"tstMovie2\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", equalTo("testMovie2")))
+                .andExpect(jsonPath("$.content[1].name", equalTo(NAME)));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchMoviesWithTotalTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/all?page=0&size=1&withTotal=true").content("{\"name\":\"testMovie\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", equalTo(NAME)))
+                .andExpect(jsonPath("$.totalElements", equalTo(2)));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchMoviesAfterTest() throws Exception {
+        MvcResult firstPage = mockMvc.perform(post(HOME_URL + "/all?size=1").content("{}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", equalTo(0)))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn();
+        String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(post(HOME_URL + "/all?size=1&after=" + next).content("{}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", equalTo(1)))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    @Test
+    void searchMoviesAfterInvalidCursorTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/all?size=1&after=broken").content("{}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchMoviesAfterInvalidSizeTest() throws Exception {
+        for (int size : new int[]{0, -1, 1001}) {
+            mockMvc.perform(post(HOME_URL + "/all?size=" + size).content("{}")
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get(HOME_URL + "/" + ID + "/orders?size=0").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -88,10 +470,24 @@ class MovieControllerTest {
     @Test
     @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     void deleteTest() throws Exception {
+        StatementStats statements = SqlStatements.during(() ->
+                mockMvc.perform(delete(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$", equalTo("ok"))));
+
+        // The DELETE, cascading to its orders; the cache-bus NOTIFY waits for the test transaction to commit.
+        assertThat(statements.getCount()).isEqualTo(1);
+        mockMvc.perform(get("/api/orders/1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteIfMovieNotExistTest() throws Exception {
         mockMvc.perform(delete(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$", equalTo("ok")));
+                .andExpect(status().isNotFound());
     }
 
     private MovieDto createMovieDto() {
@@ -2,23 +2,38 @@ package com.goose.cinema.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.JsonPath;
 import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.metrics.StatementStats;
+import com.goose.cinema.service.TransferService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
@@ -45,6 +60,9 @@ class OrderControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private TransferService transferService;
+
     @Test
     @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -58,15 +76,69 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.orderTime", equalTo(ORDER_TIME)));
     }
 
+    @Test
+    void createWithIdempotencyKeyTest() throws Exception {
+        String content = JSON_MAPPER.writeValueAsString(createOrdersInputDto());
+        String key = UUID.randomUUID().toString();
+
+        MvcResult first = mockMvc.perform(post(HOME_URL).content(content)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        Integer id = JsonPath.read(first.getResponse().getContentAsString(), "$.id");
+
+        StatementStats retry = SqlStatements.during(() -> mockMvc.perform(post(HOME_URL).content(content)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", equalTo(id))));
+
+        assertThat(retry.getExecutions().keySet()).noneMatch(sql -> sql.startsWith("insert into orders"));
+    }
+
+    @Test
+    void createWithReusedIdempotencyKeyTest() throws Exception {
+        OrderDto orderDto = createOrdersInputDto();
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post(HOME_URL).content(JSON_MAPPER.writeValueAsString(orderDto))
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        orderDto.setParticipants(PARTICIPANTS + 1);
+        mockMvc.perform(post(HOME_URL).content(JSON_MAPPER.writeValueAsString(orderDto))
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createIfMovieNotExistTest() throws Exception {
+        OrderDto orderDto = createOrdersInputDto();
+        orderDto.setMovieId(1000L);
+        String content = JSON_MAPPER.writeValueAsString(orderDto);
+
+        mockMvc.perform(post(HOME_URL).content(content)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$", equalTo("Movie doesn't exists")));
+    }
+
     @Test
     @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     void findByIdTest() throws Exception {
-        mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", is(Integer.valueOf(ID))));
+        StatementStats statements = SqlStatements.during(() ->
+                mockMvc.perform(get(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id", is(Integer.valueOf(ID)))));
+
+        assertThat(statements.getCount()).isEqualTo(1);
     }
 
     @Test
@@ -84,6 +156,139 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.content[0].id", equalTo(Integer.valueOf(ID))));
     }
 
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchOrdersAfterTest() throws Exception {
+        MvcResult firstPage = mockMvc.perform(post(HOME_URL + "/all?size=1").content("{}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", equalTo(0)))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn();
+        String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(post(HOME_URL + "/all?size=1&after=" + next).content("{}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", equalTo(1)))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void findByIdNotModifiedTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/" + ID).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch(HOME_URL).content("{\"id\":" + ID + ",\"participants\":5}")
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get(HOME_URL + "/" + ID).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.participants", is(5)));
+    }
+
+    @Test
+    void importOrdersTest() throws Exception {
+        String csv = "movie_id,order_time,participants\n"
+                + MOVIE_ID + "," + ORDER_TIME + ",2\n"
+                + MOVIE_ID + ",,4\n";
+
+        mockMvc.perform(post(HOME_URL + "/import").content(csv)
+                        .contentType("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    @Test
+    void streamOrdersTest() throws Exception {
+        MvcResult result = mockMvc.perform(post(HOME_URL + "/stream").content("{}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    // Called directly: the streamed body runs on another thread that cannot see this test's rows.
+    @Test
+    @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+            Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void streamOrdersLinesTest() throws Exception {
+        OrderDto filter = new OrderDto();
+        filter.setMovieId(Long.valueOf(MOVIE_ID));
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        transferService.streamOrders(filter, ndjson);
+
+        List<String> lines = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(1);
+        assertThat(JSON_MAPPER.readValue(lines.get(0), OrderDto.class).getId()).isEqualTo(Long.valueOf(ID));
+    }
+
+    @Test
+    void importOrdersIfMovieNotExistTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/import").content("movie_id,order_time,participants\n1000,,2\n")
+                        .contentType("text/csv"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importOrdersIfHeaderInvalidTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/import").content("movie,participants\n1,2\n")
+                        .contentType("text/csv"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createAllTest() throws Exception {
+        String content = JSON_MAPPER.writeValueAsString(List.of(createOrdersInputDto(), createOrdersInputDto()));
+
+        mockMvc.perform(post(HOME_URL + "/batch").content(content)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[1].movieId", equalTo(Integer.valueOf(MOVIE_ID))));
+    }
+
+    @Test
+    void createAllEmptyTest() throws Exception {
+        mockMvc.perform(post(HOME_URL + "/batch").content("[]")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(0)));
+    }
+
+    @Test
+    void createAllIfMovieNotExistTest() throws Exception {
+        OrderDto missingMovie = createOrdersInputDto();
+        missingMovie.setMovieId(1000L);
+        String content = JSON_MAPPER.writeValueAsString(List.of(createOrdersInputDto(), missingMovie));
+
+        mockMvc.perform(post(HOME_URL + "/batch").content(content)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -105,9 +310,13 @@ class OrderControllerTest {
     @Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
             Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     void deleteTest() throws Exception {
-        mockMvc.perform(delete(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$", equalTo("ok")));
+        StatementStats statements = SqlStatements.during(() ->
+                mockMvc.perform(delete(HOME_URL + "/" + ID).contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$", equalTo("ok"))));
+
+        // The DELETE ... RETURNING itself; the cache-bus NOTIFY waits for the test transaction to commit.
+        assertThat(statements.getCount()).isEqualTo(1);
     }
 
     private OrderDto createOrdersInputDto() {
@@ -0,0 +1,169 @@
+package com.goose.cinema.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.dto.OrderDto;
+import com.goose.cinema.metrics.StatementStats;
+import com.goose.cinema.repository.OrderRepository;
+import com.goose.cinema.service.MovieService;
+import com.goose.cinema.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the SQL the listing endpoints actually issue with sequential scans priced out, so a plan
+ * that still scans a table, or filters rows instead of seeking the index, means an index is missing.
+ */
+@Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Transactional
+@SpringBootTest
+class QueryPlanTest {
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final LocalDate DAY = LocalDate.of(2022, 9, 16);
+    private static final int SIZE = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void disableSeqScan() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void ordersByMovieTest() throws Exception {
+        OrderDto filter = new OrderDto();
+        filter.setMovieId(1L);
+
+        JsonNode plan = explain(SqlStatements.during(() -> orderService.searchAfter(filter, null, SIZE)),
+                SIZE + 1);
+
+        assertSeeks(plan, "movie_id");
+    }
+
+    @Test
+    void ordersByMovieAndDayTest() throws Exception {
+        // With a few rows either orders index does; spread the movie's orders over many days so that
+        // only the (movie_id, order_time) index avoids filtering out most of them.
+        jdbcTemplate.update("INSERT INTO orders (movie_id, order_time, participants) "
+                + "SELECT 1, DATE '2022-01-01' + (i % 200), 1 FROM generate_series(1, 20000) i");
+        jdbcTemplate.execute("ANALYZE orders");
+        OrderDto filter = new OrderDto();
+        filter.setMovieId(1L);
+        filter.setOrderTime(DAY);
+
+        JsonNode plan = explain(SqlStatements.during(() -> orderService.searchAfter(filter, null, SIZE)),
+                DAY, SIZE + 1);
+
+        assertSeeks(plan, "movie_id");
+        assertSeeks(plan, "order_time");
+    }
+
+    @Test
+    void ordersByDayTest() throws Exception {
+        OrderDto filter = new OrderDto();
+        filter.setOrderTime(DAY);
+
+        JsonNode plan = explain(SqlStatements.during(() -> orderService.searchAfter(filter, null, SIZE)),
+                DAY, SIZE + 1);
+
+        assertSeeks(plan, "order_time");
+    }
+
+    @Test
+    void ordersOfMovieTest() throws Exception {
+        JsonNode plan = explain(SqlStatements.during(() -> orderRepository.findAllByMovieIdInOrderById(Set.of(1L))),
+                1L);
+
+        assertSeeks(plan, "movie_id");
+    }
+
+    @Test
+    void moviesByReleaseDateTest() throws Exception {
+        MovieDto filter = new MovieDto();
+        filter.setReleaseDate(DAY);
+
+        JsonNode plan = explain(SqlStatements.during(() -> movieService.searchAfter(filter, NameMatch.SUBSTRING,
+                null, SIZE, MovieInclude.NONE)), DAY, SIZE + 1);
+
+        assertSeeks(plan, "release_date");
+    }
+
+    @Test
+    void moviesByNameUseCustomPlansTest() {
+        MovieDto filter = new MovieDto();
+        filter.setReleaseDate(DAY);
+        movieService.searchAfter(filter, NameMatch.SUBSTRING, null, SIZE, MovieInclude.NONE);
+        assertEquals("auto", planCacheMode());
+
+        filter.setName("test");
+        movieService.searchAfter(filter, NameMatch.SUBSTRING, null, SIZE, MovieInclude.NONE);
+        assertEquals("force_custom_plan", planCacheMode());
+    }
+
+    private String planCacheMode() {
+        return jdbcTemplate.queryForObject("SELECT current_setting('plan_cache_mode')", String.class);
+    }
+
+    // Hibernate inlines numeric criteria literals, so only the remaining bind parameters are passed.
+    private JsonNode explain(StatementStats stats, Object... parameters) throws Exception {
+        List<String> selects = stats.getExecutions().keySet().stream()
+                .filter(sql -> sql.startsWith("select"))
+                .toList();
+        assertEquals(1, selects.size(), "expected a single listing query: " + selects);
+
+        String sql = selects.get(0);
+        for (Object parameter : parameters) {
+            String literal = parameter instanceof LocalDate ? "DATE '" + parameter + "'" : parameter.toString();
+            sql = sql.replaceFirst("\\?", literal);
+        }
+        assertFalse(sql.contains("?"), "unbound parameter in " + sql);
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+        return JSON_MAPPER.readTree(plan).get(0).get("Plan");
+    }
+
+    private static void assertSeeks(JsonNode plan, String column) {
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(plan, nodes);
+
+        nodes.forEach(node -> assertFalse(node.get("Node Type").asText().contains("Seq Scan"),
+                () -> "sequential scan in " + plan.toPrettyString()));
+        assertTrue(nodes.stream().anyMatch(node -> node.path("Index Cond").asText().contains(column)),
+                () -> column + " is not an index condition in " + plan.toPrettyString());
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        node.path("Plans").forEach(child -> collect(child, nodes));
+    }
+}
@@ -0,0 +1,131 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.dto.MovieDto;
+import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.OrderDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against the real database without a surrounding transaction, so it cleans up after itself.
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@SpringBootTest
+class ReactiveMovieControllerTest {
+    private static final String NAME = "reactiveMovie";
+    private static final String HOME_URL = "/api/movies";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteMovies() {
+        jdbcTemplate.update("DELETE FROM movies WHERE name LIKE ?", NAME + "%");
+    }
+
+    @Test
+    void createAndFindByIdTest() {
+        MovieDtoAll created = create(NAME);
+
+        OrderDto order = new OrderDto();
+        order.setMovieId(created.getId());
+        order.setParticipants(2);
+        webTestClient.post().uri("/api/orders").bodyValue(order).exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri(HOME_URL + "/" + created.getId()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(NAME)
+                .jsonPath("$.orders[0].participants").isEqualTo(2);
+    }
+
+    @Test
+    void createIfNameExistTest() {
+        create(NAME);
+
+        webTestClient.post().uri(HOME_URL).bodyValue(movieDto(NAME)).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("This name is already exist");
+    }
+
+    @Test
+    void createIfCostInvalidTest() {
+        MovieDto movieDto = movieDto(NAME);
+        movieDto.setCost(0);
+
+        webTestClient.post().uri(HOME_URL).bodyValue(movieDto).exchange()
+                .expectStatus().is5xxServerError();
+    }
+
+    @Test
+    void findAllStreamTest() {
+        create(NAME + "1");
+        create(NAME + "2");
+        MovieDto filter = new MovieDto();
+        filter.setName(NAME);
+
+        List<MovieDto> movies = webTestClient.post().uri(HOME_URL + "/all").bodyValue(filter)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(MovieDto.class).getResponseBody()
+                .collectList().block();
+
+        assertThat(movies).extracting(MovieDto::getName).containsExactly(NAME + "1", NAME + "2");
+    }
+
+    @Test
+    void updateIfMatchTest() {
+        MovieDtoAll created = create(NAME);
+        MovieDto update = movieDto(NAME + "Updated");
+        update.setId(created.getId());
+
+        webTestClient.patch().uri(HOME_URL).header("If-Match", "\"" + (created.getVersion() + 1) + "\"")
+                .bodyValue(update).exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.patch().uri(HOME_URL).header("If-Match", "\"" + created.getVersion() + "\"")
+                .bodyValue(update).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo(NAME + "Updated");
+    }
+
+    @Test
+    void deleteTest() {
+        MovieDtoAll created = create(NAME);
+
+        webTestClient.delete().uri(HOME_URL + "/" + created.getId()).exchange()
+                .expectStatus().isOk();
+        webTestClient.delete().uri(HOME_URL + "/" + created.getId()).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private MovieDtoAll create(String name) {
+        return webTestClient.post().uri(HOME_URL).bodyValue(movieDto(name)).exchange()
+                .expectStatus().isOk()
+                .expectBody(MovieDtoAll.class).returnResult().getResponseBody();
+    }
+
+    private static MovieDto movieDto(String name) {
+        MovieDto movieDto = new MovieDto();
+        movieDto.setName(name);
+        movieDto.setReleaseDate(LocalDate.of(2022, 9, 16));
+        movieDto.setCost(1);
+        return movieDto;
+    }
+}
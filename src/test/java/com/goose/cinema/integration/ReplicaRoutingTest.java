@@ -0,0 +1,142 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.NameMatch;
+import com.goose.cinema.routing.Replica;
+import com.goose.cinema.routing.ReplicaRoutingDataSource;
+import com.goose.cinema.routing.ReplicaSelector;
+import com.goose.cinema.service.MovieService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "cinema.datasource.replicas=${spring.datasource.url}?ApplicationName=" + ReplicaRoutingTest.REPLICA,
+        "cinema.datasource.replica-check-interval=PT1H"})
+class ReplicaRoutingTest {
+    static final String REPLICA = "cinema-replica";
+    private static final String APPLICATION_NAME = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReplicaSelector replicaSelector;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Test
+    void readOnlyTransactionGoesToReplicaTest() {
+        transactionTemplate.setReadOnly(true);
+        try {
+            assertThat(applicationName()).isEqualTo(REPLICA);
+        } finally {
+            transactionTemplate.setReadOnly(false);
+        }
+    }
+
+    @Test
+    void writesGoToPrimaryTest() {
+        assertThat(applicationName()).isNotEqualTo(REPLICA);
+        assertThat(jdbcTemplate.queryForObject(APPLICATION_NAME, String.class)).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void replicaReadIsRecordedTest() {
+        transactionTemplate.setReadOnly(true);
+        try {
+            Boolean replicaRead = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForObject(APPLICATION_NAME, String.class);
+                return ReplicaRoutingDataSource.isReplicaRead();
+            });
+            assertThat(replicaRead).isTrue();
+        } finally {
+            transactionTemplate.setReadOnly(false);
+        }
+
+        Boolean primaryRead = transactionTemplate.execute(status -> ReplicaRoutingDataSource.isReplicaRead());
+        assertThat(primaryRead).isFalse();
+        assertThat(ReplicaRoutingDataSource.isReplicaRead()).isFalse();
+    }
+
+    @Test
+    void replicaReadDoesNotFillCountCacheTest() {
+        Cache counts = cacheManager.getCache(CacheConfig.MOVIE_COUNTS);
+        counts.clear();
+
+        movieService.searchAll(null, NameMatch.SUBSTRING, PageRequest.of(0, 1), true, MovieInclude.NONE);
+
+        assertThat(((CaffeineCache) counts).getNativeCache().asMap()).isEmpty();
+    }
+
+    @Test
+    void roundRobinOverHealthyReplicasTest() {
+        ReplicaSelector selector = selector(Duration.ofSeconds(5), replica("a", url), replica("b", url));
+
+        assertThat(List.of(selector.next().orElseThrow().getName(), selector.next().orElseThrow().getName()))
+                .containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void unreachableReplicaIsSkippedTest() {
+        ReplicaSelector selector = selector(Duration.ofSeconds(5),
+                replica("down", "jdbc:postgresql://localhost:1/cinema"), replica("up", url));
+
+        assertThat(selector.next().orElseThrow().getName()).isEqualTo("up");
+        assertThat(selector.next().orElseThrow().getName()).isEqualTo("up");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimaryTest() {
+        ReplicaSelector selector = selector(Duration.ofSeconds(-1), replica("lagging", url));
+
+        assertThat(selector.next()).isEmpty();
+        assertThat(replicaSelector.next()).isPresent();
+    }
+
+    private String applicationName() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(APPLICATION_NAME, String.class));
+    }
+
+    private ReplicaSelector selector(Duration maxLag, Replica... replicas) {
+        ReplicaSelector selector = new ReplicaSelector(List.of(replicas), maxLag, Duration.ofSeconds(1));
+        selector.check();
+        return selector;
+    }
+
+    private Replica replica(String name, String url) {
+        DataSource dataSource = new DriverManagerDataSource(url, username, password);
+        return new Replica(name, dataSource);
+    }
+}
@@ -0,0 +1,103 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.service.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Transactional
+@SpringBootTest
+class ReportControllerTest {
+    private static final String HOME_URL = "/api/reports";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void staleUntilRefreshTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/release-years"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void findWeeklyTest() throws Exception {
+        assertTrue(reportService.refresh());
+
+        mockMvc.perform(get(HOME_URL + "/weekly?from=2022-09-01&to=2022-09-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].week", equalTo("2022-09-12")))
+                .andExpect(jsonPath("$[0].orders", equalTo(2)))
+                .andExpect(jsonPath("$[0].tickets", equalTo(5)))
+                .andExpect(jsonPath("$[0].revenue", equalTo(5)));
+    }
+
+    @Test
+    void findWeeklyAfterPriceChangeTest() throws Exception {
+        jdbcTemplate.update("UPDATE movies SET cost = 10");
+        assertTrue(reportService.refresh());
+
+        mockMvc.perform(get(HOME_URL + "/weekly?from=2022-09-01&to=2022-09-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].revenue", equalTo(5)));
+        mockMvc.perform(get(HOME_URL + "/cost-bands"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].minCost", equalTo(1)))
+                .andExpect(jsonPath("$[0].revenue", equalTo(5)));
+    }
+
+    @Test
+    void findWeeklyBadRangeTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/weekly?from=2022-09-30&to=2022-09-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findReleaseYearsTest() throws Exception {
+        assertTrue(reportService.refresh());
+
+        mockMvc.perform(get(HOME_URL + "/release-years"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].releaseYear", equalTo(2022)))
+                .andExpect(jsonPath("$[0].movies", equalTo(2)))
+                .andExpect(jsonPath("$[0].tickets", equalTo(5)));
+    }
+
+    @Test
+    void findCostBandsTest() throws Exception {
+        assertTrue(reportService.refresh());
+
+        mockMvc.perform(get(HOME_URL + "/cost-bands"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].minCost", equalTo(1)))
+                .andExpect(jsonPath("$[0].maxCost", equalTo(10)))
+                .andExpect(jsonPath("$[0].movies", equalTo(2)))
+                .andExpect(jsonPath("$[0].orders", equalTo(2)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.goose.cinema.integration;
+
+import com.goose.cinema.metrics.StatementRecorder;
+import com.goose.cinema.metrics.StatementStats;
+
+final class SqlStatements {
+
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    private SqlStatements() {
+    }
+
+    static StatementStats during(Action action) throws Exception {
+        StatementRecorder.start();
+        try {
+            action.run();
+        } catch (Exception | Error e) {
+            StatementRecorder.stop();
+            throw e;
+        }
+        return StatementRecorder.stop();
+    }
+}
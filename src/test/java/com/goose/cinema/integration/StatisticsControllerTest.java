@@ -0,0 +1,141 @@
+package com.goose.cinema.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goose.cinema.dto.OrderDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@Sql(value = "classpath:sql/movieCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(value = "classpath:sql/orderCreate.sql", executionPhase =
+        Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Transactional
+@SpringBootTest
+class StatisticsControllerTest {
+    private static final String HOME_URL = "/api/statistics";
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void findTotalsTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/movies/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", equalTo(1)))
+                .andExpect(jsonPath("$.tickets", equalTo(3)))
+                .andExpect(jsonPath("$.revenue", equalTo(3)));
+    }
+
+    @Test
+    void findTotalsAfterWritesTest() throws Exception {
+        OrderDto order = new OrderDto();
+        order.setMovieId(1L);
+        order.setParticipants(4);
+        mockMvc.perform(post("/api/orders").content(JSON_MAPPER.writeValueAsString(order))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/orders/0"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL + "/movies/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", equalTo(1)))
+                .andExpect(jsonPath("$.tickets", equalTo(4)));
+    }
+
+    @Test
+    void findTotalsAfterPriceChangeTest() throws Exception {
+        mockMvc.perform(patch("/api/movies").content("{\"id\":1,\"cost\":10}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        OrderDto order = new OrderDto();
+        order.setMovieId(1L);
+        order.setParticipants(2);
+        mockMvc.perform(post("/api/orders").content(JSON_MAPPER.writeValueAsString(order))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL + "/movies/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tickets", equalTo(5)))
+                .andExpect(jsonPath("$.revenue", equalTo(23)));
+        mockMvc.perform(get(HOME_URL + "/movies/1/daily?from=2022-09-16&to=2022-09-16"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].revenue", equalTo(3)));
+    }
+
+    @Test
+    void findTotalsAfterMovingOrderTest() throws Exception {
+        OrderDto order = new OrderDto();
+        order.setId(0L);
+        order.setMovieId(0L);
+        order.setParticipants(5);
+        mockMvc.perform(patch("/api/orders").content(JSON_MAPPER.writeValueAsString(order))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL + "/movies/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", equalTo(0)))
+                .andExpect(jsonPath("$.tickets", equalTo(0)));
+        mockMvc.perform(get(HOME_URL + "/movies/0/daily?from=2022-09-01&to=2022-09-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orders", equalTo(2)))
+                .andExpect(jsonPath("$[0].tickets", equalTo(7)));
+    }
+
+    @Test
+    void findTotalsAfterDeletingMovieTest() throws Exception {
+        mockMvc.perform(delete("/api/movies/1"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(HOME_URL + "/movies/1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findTotalsIfMovieNotExistTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/movies/1000"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findDailyTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/movies/0/daily?from=2022-09-01&to=2022-09-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].day", equalTo("2022-09-16")))
+                .andExpect(jsonPath("$[0].tickets", equalTo(2)));
+    }
+
+    @Test
+    void findTopTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/top?limit=1&by=revenue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].movieId", equalTo(1)));
+    }
+
+    @Test
+    void findTopIfLimitInvalidTest() throws Exception {
+        mockMvc.perform(get(HOME_URL + "/top?limit=0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,72 @@
+package com.goose.cinema.unit;
+
+import com.goose.cinema.changes.ChangeFeedPoller;
+import com.goose.cinema.changes.ChangeNotificationListener;
+import com.goose.cinema.controller.ConcurrencyLimit;
+import com.goose.cinema.dto.ChangeFeedDto;
+import com.goose.cinema.exception.CinemaException;
+import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.service.ChangeFeedService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChangeFeedPollerTest {
+    private final ChangeFeedService changeFeedService = mock(ChangeFeedService.class);
+    private final ChangeNotificationListener listener = mock(ChangeNotificationListener.class);
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit(1, Duration.ZERO, new SimpleMeterRegistry());
+    private final ChangeFeedPoller poller =
+            new ChangeFeedPoller(changeFeedService, listener, concurrencyLimit, Duration.ofSeconds(10), 1);
+
+    @AfterEach
+    void tearDown() {
+        poller.close();
+    }
+
+    @Test
+    void rereadWithoutPermitIsRejectedTest() {
+        when(changeFeedService.read(0, 10)).thenReturn(new ChangeFeedDto(List.of(), 0));
+        when(listener.nextChange()).thenReturn(CompletableFuture.completedFuture(null));
+
+        Runnable held = concurrencyLimit.acquire();
+        CompletableFuture<ChangeFeedDto> result = poller.poll(0, 10, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .getCause()
+                .isInstanceOfSatisfying(CinemaException.class,
+                        e -> assertThat(e.getErrorType()).isEqualTo(ErrorType.TOO_MANY_REQUESTS));
+        verify(changeFeedService, times(1)).read(0, 10);
+        held.run();
+    }
+
+    @Test
+    void rereadReleasesPermitTest() throws Exception {
+        when(changeFeedService.read(0, 10)).thenReturn(new ChangeFeedDto(List.of(), 0));
+        when(listener.nextChange()).thenReturn(CompletableFuture.completedFuture(null));
+
+        ChangeFeedDto feed = poller.poll(0, 10, Duration.ofMillis(200)).get(5, TimeUnit.SECONDS);
+
+        // The poll completes inside the re-read, just before its permit is released.
+        Runnable release = concurrencyLimit.acquire();
+        for (int attempt = 0; attempt < 100 && release == null; attempt++) {
+            Thread.sleep(10);
+            release = concurrencyLimit.acquire();
+        }
+        assertThat(feed.getEvents()).isEmpty();
+        assertThat(release).isNotNull();
+    }
+}
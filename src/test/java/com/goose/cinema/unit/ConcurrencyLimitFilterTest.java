@@ -0,0 +1,88 @@
+package com.goose.cinema.unit;
+
+import com.goose.cinema.controller.ConcurrencyLimit;
+import com.goose.cinema.controller.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter =
+            new ConcurrencyLimitFilter(new ConcurrencyLimit(1, Duration.ZERO, meterRegistry), Duration.ofSeconds(2));
+
+    @Test
+    void rejectOverLimitTest() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain holdingChain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/1"),
+                rejected, new MockFilterChain()));
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/0"), admitted, holdingChain);
+
+        assertThat(admitted.getStatus()).isEqualTo(200);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).isEqualTo("Too many requests");
+        assertThat(meterRegistry.get(ConcurrencyLimit.REJECTED_METRIC).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void releaseAfterRequestTest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/0"), response, new MockFilterChain());
+
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void asyncRequestHoldsPermitUntilCompleteTest() throws Exception {
+        MockHttpServletRequest streaming = asyncRequest("/api/orders/export");
+        filter.doFilter(streaming, new MockHttpServletResponse(), startingAsync());
+
+        MockHttpServletResponse waiting = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/0"), waiting, new MockFilterChain());
+        streaming.getAsyncContext().complete();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/0"), admitted, new MockFilterChain());
+
+        assertThat(waiting.getStatus()).isEqualTo(429);
+        assertThat(admitted.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void releaseWhileAsyncTest() throws Exception {
+        MockHttpServletRequest polling = asyncRequest("/api/changes");
+        polling.setAttribute(ConcurrencyLimitFilter.RELEASE_WHILE_ASYNC, true);
+        filter.doFilter(polling, new MockHttpServletResponse(), startingAsync());
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/0"), admitted, new MockFilterChain());
+
+        assertThat(polling.isAsyncStarted()).isTrue();
+        assertThat(admitted.getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletRequest asyncRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static MockFilterChain startingAsync() {
+        return new MockFilterChain(new HttpServlet() {
+        }, (request, response, chain) -> request.startAsync());
+    }
+}
@@ -1,25 +1,36 @@
 package com.goose.cinema.unit;
 
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.CursorPage;
 import com.goose.cinema.dto.MovieDto;
 import com.goose.cinema.dto.MovieDtoAll;
+import com.goose.cinema.dto.MovieInclude;
+import com.goose.cinema.dto.NameMatch;
 import com.goose.cinema.exception.CinemaException;
 import com.goose.cinema.exception.ErrorType;
+import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.persistance.Movie;
+import com.goose.cinema.persistance.Order;
 import com.goose.cinema.repository.MovieRepository;
+import com.goose.cinema.repository.OrderRepository;
 import com.goose.cinema.service.MovieService;
 import com.goose.cinema.service.MovieServiceI;
-import org.junit.Test;
-import org.junit.runner.RunWith;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.test.context.junit4.SpringRunner;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -27,34 +38,48 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@RunWith(SpringRunner.class)
 @SpringBootTest
-public class MovieServiceTest {
+class MovieServiceTest {
 
     @Autowired
     private MovieService movieService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @MockBean
     private MovieRepository movieRepository;
 
+    @MockBean
+    private OrderRepository orderRepository;
+
+    // The context, and with it the cache, is shared by every test in the class.
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.MOVIES).clear();
+        cacheManager.getCache(CacheConfig.MOVIE_COUNTS).clear();
+    }
+
     @Test
-    public void createTest() {
+    void createTest() {
         Movie movie = createMovie();
         MovieDto movieDto = createMovieDto(movie);
 
-        when(movieRepository.save((any(Movie.class)))).thenReturn(movie);
+        when(movieRepository.saveAndFlush((any(Movie.class)))).thenReturn(movie);
 
         MovieDtoAll result = movieService.create(movieDto);
 
-        verify(movieRepository).save(any(Movie.class));
+        verify(movieRepository).saveAndFlush(any(Movie.class));
         assertThat(result.getName()).isEqualTo(movie.getName());
     }
 
     @Test
-    public void createIfFieldsNullTest() {
+    void createIfFieldsNullTest() {
         MovieDto movie = new MovieDto();
         movie.setName("some movie");
 
@@ -64,7 +89,7 @@ public class MovieServiceTest {
     }
 
     @Test
-    public void findByIdTest() {
+    void findByIdTest() {
         Movie movie = createMovie();
 
         when(movieRepository.findById(movie.getId())).thenReturn(Optional.of(movie));
@@ -77,16 +102,70 @@ public class MovieServiceTest {
     }
 
     @Test
-    public void searchMoviesTest() {
+    void findByIdCachedTest() {
+        Movie movie = createMovie();
+        movie.setId(42L);
+
+        when(movieRepository.findById(movie.getId())).thenReturn(Optional.of(movie));
+
+        movieService.findById(movie.getId());
+        MovieDtoAll result = movieService.findById(movie.getId());
+
+        verify(movieRepository, times(1)).findById(movie.getId());
+        assertThat(result.getId()).isEqualTo(movie.getId());
+        assertThat(cacheManager.getCache(CacheConfig.MOVIES).get(movie.getId())).isNotNull();
+    }
+
+    @Test
+    void findByIdAfterDeleteTest() {
+        Movie movie = createMovie();
+
+        when(movieRepository.findById(movie.getId())).thenReturn(Optional.of(movie));
+        when(movieRepository.deleteMovieById(movie.getId())).thenReturn(1);
+
+        movieService.findById(movie.getId());
+        movieService.delete(movie.getId());
+        movieService.findById(movie.getId());
+
+        verify(movieRepository, times(2)).findById(movie.getId());
+    }
+
+    @Test
+    void findSummaryByIdTest() {
+        Movie movie = createMovie();
+
+        when(movieRepository.findById(movie.getId())).thenReturn(Optional.of(movie));
+
+        MovieDto result = movieService.findSummaryById(movie.getId());
+
+        verify(movieRepository).findById(movie.getId());
+        assertThat(result.getId()).isEqualTo(movie.getId());
+        assertThat(result.getName()).isEqualTo(movie.getName());
+        assertThat(cacheManager.getCache(CacheConfig.MOVIES).get(movie.getId())).isNull();
+    }
+
+    @Test
+    void findSummaryByIdIfEmptyTest() {
+        when(movieRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> movieService.findSummaryById(1L))
+                .isInstanceOf(CinemaException.class)
+                .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
+    }
+
+    @Test
+    void searchMoviesTest() {
         Movie movie = createMovie();
         MovieDto movieInputDto = createMovieDto(movie);
         PageRequest pageRequest = PageRequest.of(0, 1);
 
-        when(movieRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(movie)));
+        when(movieRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(movie), pageRequest, false));
 
-        Page<MovieDtoAll> page = movieService.searchAll(movieInputDto, pageRequest);
+        Slice<MovieDtoAll> page = movieService.searchAll(movieInputDto, NameMatch.SUBSTRING, pageRequest, false, MovieInclude.NONE);
 
-        verify(movieRepository).findAll(any(Specification.class), any(Pageable.class));
+        verify(movieRepository).findSlice(any(Specification.class), any(Pageable.class));
+        verify(movieRepository, never()).count(any(Specification.class));
 
         Optional<MovieDtoAll> first = page.get().findFirst();
 
@@ -95,7 +174,90 @@ public class MovieServiceTest {
     }
 
     @Test
-    public void updateTest() {
+    void searchMoviesWithOrdersTest() {
+        Movie first = createMovie();
+        Movie second = createMovie();
+        second.setId(2L);
+        second.setName("other");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        when(movieRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(first, second), pageRequest, false));
+        when(orderRepository.findAllByMovieIdInOrderById(List.of(1L, 2L)))
+                .thenReturn(List.of(createOrder(10L, 1L), createOrder(11L, 1L)));
+
+        Slice<MovieDtoAll> page = movieService.searchAll(null, NameMatch.SUBSTRING, pageRequest, false, MovieInclude.ORDERS);
+
+        verify(orderRepository, times(1)).findAllByMovieIdInOrderById(List.of(1L, 2L));
+        assertThat(page.getContent().get(0).getOrders()).extracting(OrderDto::getId).containsExactly(10L, 11L);
+        assertThat(page.getContent().get(1).getOrders()).isEmpty();
+    }
+
+    @Test
+    void searchMoviesWithoutOrdersTest() {
+        Movie movie = createMovie();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        when(movieRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(movie), pageRequest, false));
+
+        movieService.searchAll(null, NameMatch.SUBSTRING, pageRequest, false, MovieInclude.NONE);
+
+        verify(orderRepository, never()).findAllByMovieIdInOrderById(any());
+    }
+
+    @Test
+    void searchMoviesWithTotalTest() {
+        Movie movie = createMovie();
+        MovieDto movieInputDto = createMovieDto(movie);
+        movieInputDto.setCost(42);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        when(movieRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(movie), pageRequest, true));
+        when(movieRepository.count(any(Specification.class))).thenReturn(7L);
+
+        movieService.searchAll(movieInputDto, NameMatch.SUBSTRING, pageRequest, true, MovieInclude.NONE);
+        Slice<MovieDtoAll> page = movieService.searchAll(movieInputDto, NameMatch.SUBSTRING, pageRequest, true, MovieInclude.NONE);
+
+        verify(movieRepository, times(1)).count(any(Specification.class));
+        assertThat(((Page<MovieDtoAll>) page).getTotalElements()).isEqualTo(7L);
+    }
+
+    @Test
+    void searchMoviesWithTotalPerFilterTest() {
+        Movie movie = createMovie();
+        MovieDto movieInputDto = createMovieDto(movie);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        when(movieRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(movie), pageRequest, true));
+        when(movieRepository.count(any(Specification.class))).thenReturn(7L, 3L);
+
+        movieService.searchAll(movieInputDto, NameMatch.SUBSTRING, pageRequest, true, MovieInclude.NONE);
+        Slice<MovieDtoAll> page = movieService.searchAll(movieInputDto, NameMatch.PREFIX, pageRequest, true, MovieInclude.NONE);
+
+        verify(movieRepository, times(2)).count(any(Specification.class));
+        assertThat(((Page<MovieDtoAll>) page).getTotalElements()).isEqualTo(3L);
+    }
+
+    @Test
+    void searchMoviesAfterTest() {
+        Movie movie = createMovie();
+        MovieDto movieInputDto = createMovieDto(movie);
+
+        when(movieRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(movie), PageRequest.of(0, 1), false));
+
+        CursorPage<MovieDtoAll> page = movieService.searchAfter(movieInputDto, NameMatch.SUBSTRING, null, 1, MovieInclude.NONE);
+
+        verify(movieRepository).findSlice(any(Specification.class), any(Pageable.class));
+        assertThat(page.getContent()).extracting(MovieDtoAll::getName).containsExactly(movie.getName());
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    void updateTest() {
         Movie movie = createMovie();
         MovieDto movieDto = createMovieDto(movie);
         Movie returnMovie = new Movie();
@@ -106,9 +268,9 @@ public class MovieServiceTest {
         returnMovie.setCost(111);
 
         when(movieRepository.findById(movieDto.getId())).thenReturn(Optional.of(returnMovie));
-        when(movieRepository.save((any(Movie.class)))).thenReturn(returnMovie);
+        when(movieRepository.saveAndFlush((any(Movie.class)))).thenReturn(returnMovie);
 
-        MovieDtoAll result = movieService.update(movieDto);
+        MovieDtoAll result = movieService.update(movieDto, null);
 
         verify(movieRepository).findById(movieDto.getId());
         assertThat(result.getId()).isEqualTo(movie.getId());
@@ -118,69 +280,70 @@ public class MovieServiceTest {
     }
 
     @Test
-    public void updateIfEmptyTest() {
+    void updateIfEmptyTest() {
         Movie movie = createMovie();
         MovieDto movieDto = createMovieDto(movie);
 
         when(movieRepository.findById(movieDto.getId())).thenReturn(Optional.empty());
-        assertThatThrownBy(() -> movieService.update(movieDto))
+        assertThatThrownBy(() -> movieService.update(movieDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
     }
 
     @Test
-    public void updateIfNameDuplicateTest() {
+    void updateIfNameDuplicateTest() {
         Movie movie = createMovie();
         MovieDto movieDto = createMovieDto(movie);
         movieDto.setName("test");
 
         when(movieRepository.findById(movieDto.getId())).thenReturn(Optional.of(movie));
-        when(movieRepository.existsByName(movieDto.getName())).thenReturn(true);
-        assertThatThrownBy(() -> movieService.update(movieDto))
+        when(movieRepository.saveAndFlush(any(Movie.class))).thenThrow(new DataIntegrityViolationException("movies_name_key",
+                new ConstraintViolationException("movies_name_key", new SQLException("duplicate", "23505"), "movies_name_key")));
+        assertThatThrownBy(() -> movieService.update(movieDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.ALREADY_OCCUPIED);
     }
 
     @Test
-    public void updateIfNameDifferentTest() {
+    void updateIfNameDifferentTest() {
         Movie movie = createMovie();
         MovieDto movieDto = createMovieDto(movie);
         movieDto.setName("test");
 
         when(movieRepository.findById(movieDto.getId())).thenReturn(Optional.empty());
-        assertThatThrownBy(() -> movieService.update(movieDto))
+        assertThatThrownBy(() -> movieService.update(movieDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
     }
 
     @Test
-    public void updateIfCostLessThanNullTest() {
+    void updateIfCostLessThanNullTest() {
         Movie movie = createMovie();
         MovieDto movieDto = createMovieDto(movie);
         movieDto.setCost(0);
 
         when(movieRepository.findById(movieDto.getId())).thenReturn(Optional.of(movie));
-        assertThatThrownBy(() -> movieService.update(movieDto))
+        assertThatThrownBy(() -> movieService.update(movieDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.INTERNAL_ERROR);
     }
 
     @Test
-    public void deleteTest() {
+    void deleteTest() {
         Movie movie = createMovie();
 
-        when(movieRepository.existsById(movie.getId())).thenReturn(true);
+        when(movieRepository.deleteMovieById(movie.getId())).thenReturn(1);
 
         movieService.delete(movie.getId());
 
-        verify(movieRepository).deleteById(movie.getId());
+        verify(movieRepository).deleteMovieById(movie.getId());
     }
 
     @Test
-    public void deleteIfEmptyTest() {
+    void deleteIfEmptyTest() {
         Movie movie = createMovie();
 
-        when(movieRepository.findById(movie.getId())).thenReturn(Optional.empty());
+        when(movieRepository.deleteMovieById(movie.getId())).thenReturn(0);
 
         Long id = movie.getId();
 
@@ -198,6 +361,15 @@ public class MovieServiceTest {
         return movie;
     }
 
+    private Order createOrder(Long id, Long movieId) {
+        Order order = new Order();
+        order.setId(id);
+        order.setMovieId(movieId);
+        order.setOrderTime(LocalDate.now());
+        order.setParticipants(1);
+        return order;
+    }
+
     private MovieDto createMovieDto(Movie movie) {
         MovieDto result = new MovieDto();
         result.setId(movie.getId());
@@ -0,0 +1,173 @@
+package com.goose.cinema.unit;
+
+import com.goose.cinema.journal.JournaledOrder;
+import com.goose.cinema.journal.OrderJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderJournalTest {
+    private static final int RECORD_SIZE = 32;
+    private static final LocalDate DAY = LocalDate.of(2022, 9, 16);
+
+    @TempDir
+    Path directory;
+
+    private final List<JournaledOrder> sunk = new CopyOnWriteArrayList<>();
+
+    @Test
+    void replayTest() throws Exception {
+        OrderJournal journal = open(1 << 20);
+        append(journal, 1L, 2L, 3L);
+        journal.close();
+        sunk.clear();
+
+        open(1 << 20).close();
+
+        assertThat(sunk).extracting(JournaledOrder::getId).containsExactly(1L, 2L, 3L);
+        assertThat(sunk.get(0).getOrderTime()).isEqualTo(DAY);
+        assertThat(sunk.get(0).getParticipants()).isEqualTo(2);
+    }
+
+    @Test
+    void flushedSegmentsAreDeletedTest() throws Exception {
+        OrderJournal journal = open(2 * RECORD_SIZE);
+        append(journal, 1L, 2L, 3L, 4L, 5L);
+        journal.flushed(List.copyOf(sunk));
+        journal.close();
+        sunk.clear();
+
+        assertThat(segments()).isEmpty();
+        open(2 * RECORD_SIZE).close();
+        assertThat(sunk).isEmpty();
+    }
+
+    @Test
+    void activeSegmentFlushedAfterCloseIsDeletedTest() throws Exception {
+        OrderJournal journal = open(1 << 20);
+        append(journal, 1L, 2L);
+        journal.close();
+        assertThat(segments()).hasSize(1);
+
+        journal.flushed(List.copyOf(sunk));
+
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    void idleFlushedSegmentIsRotatedTest() throws Exception {
+        OrderJournal journal = open(1 << 20);
+        append(journal, 1L, 2L);
+        Path first = segments().get(0);
+        journal.flushed(List.copyOf(sunk));
+
+        for (int attempt = 0; attempt < 50 && Files.exists(first); attempt++) Thread.sleep(20);
+        assertThat(first).doesNotExist();
+        append(journal, 3L);
+        sunk.clear();
+        journal.close();
+
+        open(1 << 20).close();
+        assertThat(sunk).extracting(JournaledOrder::getId).containsExactly(3L);
+    }
+
+    @Test
+    void unflushedSegmentsAreKeptTest() throws Exception {
+        OrderJournal journal = open(2 * RECORD_SIZE);
+        append(journal, 1L, 2L, 3L, 4L, 5L);
+        journal.flushed(sunk.subList(0, 2));
+        journal.close();
+        sunk.clear();
+
+        open(2 * RECORD_SIZE).close();
+
+        assertThat(sunk).extracting(JournaledOrder::getId).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void blockedSinkFillsQueueTest() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        OrderJournal journal = new OrderJournal(directory, 1 << 20, 1, 2, orders -> {
+            try {
+                stalled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        journal.append(JournaledOrder.of(1L, 7L, 2, DAY)).get(10, TimeUnit.SECONDS);
+        long accepted = LongStream.range(2, 10)
+                .takeWhile(id -> journal.append(JournaledOrder.of(id, 7L, 2, DAY)) != null)
+                .count();
+        stalled.countDown();
+        journal.close();
+
+        assertThat(accepted).isEqualTo(2);
+    }
+
+    @Test
+    void tornTailIsDiscardedTest() throws Exception {
+        OrderJournal journal = open(1 << 20);
+        append(journal, 1L, 2L);
+        journal.close();
+        sunk.clear();
+        Path segment = segments().get(0);
+        Files.write(segment, new byte[RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+        open(1 << 20).close();
+
+        assertThat(sunk).extracting(JournaledOrder::getId).containsExactly(1L, 2L);
+        assertThat(Files.size(segment)).isEqualTo(2L * RECORD_SIZE);
+    }
+
+    @Test
+    void corruptRecordEndsReplayTest() throws Exception {
+        OrderJournal journal = open(1 << 20);
+        append(journal, 1L, 2L, 3L);
+        journal.close();
+        sunk.clear();
+        Path segment = segments().get(0);
+        byte[] content = Files.readAllBytes(segment);
+        content[RECORD_SIZE + 10] ^= 1;
+        Files.write(segment, content);
+
+        open(1 << 20).close();
+
+        assertThat(sunk).extracting(JournaledOrder::getId).containsExactly(1L);
+    }
+
+    private OrderJournal open(long segmentBytes) {
+        return new OrderJournal(directory, segmentBytes, 16, 1024, sunk::addAll);
+    }
+
+    // Orders reach the sink just after they are acknowledged.
+    private void append(OrderJournal journal, Long... ids) throws Exception {
+        for (Long id : ids) {
+            CompletableFuture<JournaledOrder> durable = journal.append(JournaledOrder.of(id, 7L, 2, DAY));
+            durable.get(10, TimeUnit.SECONDS);
+            for (int attempt = 0; attempt < 500 && sunk.stream().noneMatch(order -> order.getId() == id); attempt++) {
+                Thread.sleep(2);
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
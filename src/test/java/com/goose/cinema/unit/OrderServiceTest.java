@@ -1,24 +1,35 @@
 package com.goose.cinema.unit;
 
+import com.goose.cinema.config.CacheConfig;
+import com.goose.cinema.dto.CursorPage;
+import com.goose.cinema.dto.MovieDtoAll;
 import com.goose.cinema.dto.OrderDto;
 import com.goose.cinema.exception.CinemaException;
 import com.goose.cinema.exception.ErrorType;
 import com.goose.cinema.persistance.Order;
+import com.goose.cinema.repository.IdempotencyKeyRepository;
 import com.goose.cinema.repository.MovieRepository;
 import com.goose.cinema.repository.OrderRepository;
 import com.goose.cinema.service.OrderServiceI;
+import com.goose.cinema.specification.KeysetCursor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +38,9 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,26 +51,111 @@ class OrderServiceTest {
     @Autowired
     private OrderServiceI orderService;
     
+    @Autowired
+    private CacheManager cacheManager;
+
     @MockBean
     private OrderRepository orderRepository;
     
     @MockBean
     private MovieRepository movieRepository;
 
+    @MockBean
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
     @Test
     void createTest() {
         Order order = createOrder();
         OrderDto orderDto = createOrderDto(order);
 
-        when(orderRepository.save((any(Order.class)))).thenReturn(order);
-        when(movieRepository.existsById(orderDto.getMovieId())).thenReturn(true);
+        when(orderRepository.saveAndFlush((any(Order.class)))).thenReturn(order);
 
         OrderDto result = orderService.create(orderDto);
 
-        verify(orderRepository).save(any(Order.class));
+        verify(orderRepository).saveAndFlush(any(Order.class));
+        verify(movieRepository, never()).existsById(any());
         assertThat(result.getMovieId()).isEqualTo(order.getMovieId());
     }
 
+    @Test
+    void createEvictsCachedMovieTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+        Cache movies = cacheManager.getCache(CacheConfig.MOVIES);
+        movies.put(order.getMovieId(), new MovieDtoAll());
+
+        when(orderRepository.saveAndFlush((any(Order.class)))).thenReturn(order);
+
+        orderService.create(orderDto);
+
+        assertThat(movies.get(order.getMovieId())).isNull();
+    }
+
+    @Test
+    void createWithNewIdempotencyKeyTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+        String key = UUID.randomUUID().toString();
+
+        when(idempotencyKeyRepository.claim(key)).thenReturn(1);
+        when(orderRepository.saveAndFlush((any(Order.class)))).thenReturn(order);
+
+        orderService.create(orderDto, key);
+
+        verify(orderRepository).saveAndFlush(any(Order.class));
+        verify(idempotencyKeyRepository).complete(eq(key), any());
+    }
+
+    @Test
+    void createWithRetriedIdempotencyKeyTest() {
+        Order order = createOrder();
+        order.setId(7L);
+        OrderDto orderDto = createOrderDto(order);
+        String key = UUID.randomUUID().toString();
+
+        when(idempotencyKeyRepository.claim(key)).thenReturn(0);
+        when(idempotencyKeyRepository.findOrderIdByKey(key)).thenReturn(Optional.of(7L));
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        OrderDto first = orderService.create(orderDto, key);
+        OrderDto second = orderService.create(orderDto, key);
+
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+        verify(idempotencyKeyRepository, times(1)).claim(key);
+        assertThat(first.getId()).isEqualTo(7L);
+        assertThat(second.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void createWithReusedIdempotencyKeyTest() {
+        Order order = createOrder();
+        order.setId(7L);
+        OrderDto orderDto = createOrderDto(order);
+        orderDto.setParticipants(order.getParticipants() + 1);
+        String key = UUID.randomUUID().toString();
+
+        when(idempotencyKeyRepository.claim(key)).thenReturn(0);
+        when(idempotencyKeyRepository.findOrderIdByKey(key)).thenReturn(Optional.of(7L));
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> orderService.create(orderDto, key))
+                .isInstanceOf(CinemaException.class)
+                .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.CONFLICT);
+    }
+
+    @Test
+    void createIfMovieNotExistTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+
+        when(orderRepository.saveAndFlush(any(Order.class)))
+                .thenThrow(constraintViolation("23503", "orders_movie_id_fkey"));
+
+        assertThatThrownBy(() -> orderService.create(orderDto))
+                .isInstanceOf(CinemaException.class)
+                .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
+    }
+
     @Test
     void createIfFieldsNullTest() {
         OrderDto order = new OrderDto();
@@ -66,6 +165,34 @@ class OrderServiceTest {
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.INTERNAL_ERROR);
     }
 
+    @Test
+    void createAllTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+
+        when(movieRepository.findExistingIds(any())).thenReturn(List.of(orderDto.getMovieId()));
+
+        List<OrderDto> result = orderService.createAll(List.of(orderDto, orderDto));
+
+        verify(movieRepository, times(1)).findExistingIds(any());
+        verify(orderRepository).saveAll(any());
+        verify(movieRepository, never()).existsById(any());
+        assertThat(result).hasSize(2).extracting(OrderDto::getMovieId).containsOnly(order.getMovieId());
+    }
+
+    @Test
+    void createAllIfMovieNotExistTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+
+        when(movieRepository.findExistingIds(any())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> orderService.createAll(List.of(orderDto)))
+                .isInstanceOf(CinemaException.class)
+                .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
+        verify(orderRepository, never()).saveAll(any());
+    }
+
     @Test
     void findByIdTest() {
         Order order = createOrder();
@@ -85,16 +212,63 @@ class OrderServiceTest {
         OrderDto orderDto = createOrderDto(order);
         PageRequest pageRequest = PageRequest.of(0, 1);
 
-        when(orderRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(order), pageRequest, true));
 
-        Page<OrderDto> page = orderService.searchAll(orderDto, pageRequest);
+        Slice<OrderDto> page = orderService.searchAll(orderDto, pageRequest, false);
 
-        verify(orderRepository).findAll(any(Specification.class), any(Pageable.class));
+        verify(orderRepository).findSlice(any(Specification.class), any(Pageable.class));
+        verify(orderRepository, never()).count(any(Specification.class));
 
         Optional<OrderDto> first = page.get().findFirst();
 
         assertThat(first).isPresent();
         assertThat(first.get().getId()).isEqualTo(order.getId());
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void searchOrdersWithTotalTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+        orderDto.setParticipants(42);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        when(orderRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(order), pageRequest, true));
+        when(orderRepository.count(any(Specification.class))).thenReturn(7L);
+
+        Slice<OrderDto> first = orderService.searchAll(orderDto, pageRequest, true);
+        Slice<OrderDto> second = orderService.searchAll(orderDto, pageRequest, true);
+
+        verify(orderRepository, times(1)).count(any(Specification.class));
+        assertThat(first).isInstanceOf(Page.class);
+        assertThat(((Page<OrderDto>) first).getTotalElements()).isEqualTo(7L);
+        assertThat(((Page<OrderDto>) second).getTotalElements()).isEqualTo(7L);
+    }
+
+    @Test
+    void searchOrdersAfterTest() {
+        Order order = createOrder();
+        OrderDto orderDto = createOrderDto(order);
+
+        when(orderRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(order), PageRequest.of(0, 1), true));
+
+        CursorPage<OrderDto> page = orderService.searchAfter(orderDto, null, 1);
+
+        verify(orderRepository).findSlice(any(Specification.class), any(Pageable.class));
+        assertThat(page.getContent()).extracting(OrderDto::getId).containsExactly(order.getId());
+        assertThat(KeysetCursor.decode(page.getNext())).isEqualTo(order.getId());
+    }
+
+    @Test
+    void searchOrdersAfterInvalidCursorTest() {
+        OrderDto orderDto = new OrderDto();
+
+        assertThatThrownBy(() -> orderService.searchAfter(orderDto, "broken", 1))
+                .isInstanceOf(CinemaException.class)
+                .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.BAD_REQUEST);
     }
 
     @Test
@@ -109,10 +283,9 @@ class OrderServiceTest {
         returnOrder.setParticipants(111);
 
         when(orderRepository.findById(orderDto.getId())).thenReturn(Optional.of(returnOrder));
-        when(movieRepository.existsById(orderDto.getMovieId())).thenReturn(true);
-        when(orderRepository.save((any(Order.class)))).thenReturn(returnOrder);
+        when(orderRepository.saveAndFlush((any(Order.class)))).thenReturn(returnOrder);
 
-        OrderDto result = orderService.update(orderDto);
+        OrderDto result = orderService.update(orderDto, null);
 
         verify(orderRepository).findById(orderDto.getId());
         assertThat(result.getId()).isEqualTo(orders.getId());
@@ -121,13 +294,26 @@ class OrderServiceTest {
         assertThat(result.getParticipants()).isEqualTo(orders.getParticipants());
     }
 
+    @Test
+    void updateIfVersionMismatchTest() {
+        Order order = createOrder();
+        order.setVersion(3L);
+        OrderDto orderDto = createOrderDto(order);
+
+        when(orderRepository.findById(orderDto.getId())).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> orderService.update(orderDto, 2L))
+                .isInstanceOf(CinemaException.class)
+                .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.PRECONDITION_FAILED);
+    }
+
     @Test
     void updateIfEmptyTest() {
         Order order = createOrder();
         OrderDto orderDto = createOrderDto(order);
 
         when(orderRepository.findById(orderDto.getId())).thenReturn(Optional.empty());
-        assertThatThrownBy(() -> orderService.update(orderDto))
+        assertThatThrownBy(() -> orderService.update(orderDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
     }
@@ -139,9 +325,10 @@ class OrderServiceTest {
         orderDto.setMovieId(1000L);
 
         when(orderRepository.findById(orderDto.getId())).thenReturn(Optional.of(order));
-        when(movieRepository.findById(orderDto.getMovieId())).thenReturn(Optional.empty());
+        when(orderRepository.saveAndFlush(any(Order.class)))
+                .thenThrow(constraintViolation("23503", "orders_movie_id_fkey"));
 
-        assertThatThrownBy(() -> orderService.update(orderDto))
+        assertThatThrownBy(() -> orderService.update(orderDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.NOT_FOUND);
     }
@@ -153,8 +340,7 @@ class OrderServiceTest {
         orderDto.setParticipants(0);
 
         when(orderRepository.findById(orderDto.getId())).thenReturn(Optional.of(order));
-        when(movieRepository.existsById(orderDto.getMovieId())).thenReturn(true);
-        assertThatThrownBy(() -> orderService.update(orderDto))
+        assertThatThrownBy(() -> orderService.update(orderDto, null))
                 .isInstanceOf(CinemaException.class)
                 .matches((error) -> ((CinemaException) error).getErrorType() == ErrorType.INTERNAL_ERROR);
     }
@@ -163,18 +349,19 @@ class OrderServiceTest {
     void deleteTest() {
         Order order = createOrder();
 
-        when(orderRepository.existsById(order.getId())).thenReturn(true);
+        when(orderRepository.deleteReturningMovieId(order.getId())).thenReturn(Optional.of(order.getMovieId()));
 
         orderService.delete(order.getId());
 
-        verify(orderRepository).deleteById(order.getId());
+        verify(orderRepository).deleteReturningMovieId(order.getId());
+        verify(orderRepository, never()).findById(any());
     }
 
     @Test
     void deleteIfEmptyTest() {
         Order orders = createOrder();
 
-        when(orderRepository.findById(orders.getId())).thenReturn(Optional.empty());
+        when(orderRepository.deleteReturningMovieId(orders.getId())).thenReturn(Optional.empty());
 
         Long id = orders.getId();
 
@@ -192,6 +379,11 @@ class OrderServiceTest {
         return order;
     }
 
+    private static DataIntegrityViolationException constraintViolation(String sqlState, String constraint) {
+        return new DataIntegrityViolationException(constraint,
+                new ConstraintViolationException(constraint, new SQLException(constraint, sqlState), constraint));
+    }
+
     private OrderDto createOrderDto(Order order) {
         OrderDto result = new OrderDto();
         result.setId(order.getId());
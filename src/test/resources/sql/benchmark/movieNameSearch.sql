@@ -0,0 +1,35 @@
+-- Name search latency benchmark for movies_name_trgm_idx.
+-- Run against a scratch database with the Liquibase changelog applied:
+--   psql -d cinema_bench -v rows=1000000 -f movieNameSearch.sql
+-- Re-run with a larger :rows to check that latency stays flat.
+-- The session mirrors the name searches, which set plan_cache_mode=force_custom_plan locally,
+-- otherwise a cached generic plan for LIKE :param ignores the trigram index.
+
+\timing on
+
+SET plan_cache_mode = force_custom_plan;
+
+TRUNCATE movies CASCADE;
+
+INSERT INTO movies(id, name, release_date, cost)
+SELECT i,
+       initcap(translate(substr(md5(i::text), 1, 9), '0123456789', 'aeiouyrstl')) || ' ' ||
+       initcap(translate(substr(md5(i::text || 'x'), 1, 7), '0123456789', 'nmkhgbdpvw')) || ' ' ||
+       (ARRAY['Returns', 'Rising', 'Origins', 'Reloaded'])[1 + i % 4],
+       timestamp '2000-01-01' + (i % 8000) * interval '1 day',
+       1 + i % 20
+FROM generate_series(1, :rows) AS i;
+
+ANALYZE movies;
+
+PREPARE substring_search(text) AS
+    SELECT * FROM movies WHERE name LIKE $1 ESCAPE '\' ORDER BY id LIMIT 21;
+PREPARE fuzzy_search(text) AS
+    SELECT * FROM movies WHERE (name % $1) = true ORDER BY similarity(name, $1) DESC, id LIMIT 21;
+
+-- match=substring
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE substring_search('%ucauiota H%');
+-- match=prefix
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE substring_search('Cucauio%');
+-- match=fuzzy
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE fuzzy_search('Cucauiota Hvdvgm Risin');